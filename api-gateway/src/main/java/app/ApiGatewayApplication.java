@@ -1,12 +1,24 @@
 package app;
 
+import app.cache.ResponseCacheProperties;
+import app.coalescing.CoalescingProperties;
+import app.hedging.HedgingProperties;
+import app.loadbalancer.LoadBalancerProperties;
+import app.ratelimit.RateLimitProperties;
 import app.util.JwtUtil;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
 @SpringBootApplication
-@EnableConfigurationProperties(JwtUtil.class)
+@EnableConfigurationProperties({
+        JwtUtil.class,
+        RateLimitProperties.class,
+        LoadBalancerProperties.class,
+        CoalescingProperties.class,
+        HedgingProperties.class,
+        ResponseCacheProperties.class
+})
 public class ApiGatewayApplication {
     public static void main(String[] args) {
         SpringApplication.run(ApiGatewayApplication.class, args);
@@ -0,0 +1,176 @@
+package app.cache;
+
+import app.filter.support.BufferedResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory tier of the gateway HTTP cache, bounded by total body bytes. Entries live
+ * until the freshness lifetime announced by the service, and can be dropped early
+ * by publishing a path (or a path prefix ending in '*') on the invalidation channel.
+ * <p>
+ * Lookups happen before the route's filters rewrite the path, so entries are keyed on the
+ * gateway path but invalidated by the upstream path the service itself sees, e.g.
+ * {@code /posts/<id>} for {@code /api/posts/<id>}. An index from upstream path to keys lets an
+ * invalidation touch only that path's entries (one per viewer for private responses) instead
+ * of scanning the cache; a prefix scans the distinct paths, not the entries.
+ */
+@Slf4j
+@Component
+public class ResponseCache {
+
+    private final ResponseCacheProperties properties;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Cache<Key, Entry> cache;
+    private final Map<String, Set<Key>> keysByPath = new ConcurrentHashMap<>();
+
+    private Disposable invalidationSubscription;
+
+    public ResponseCache(ResponseCacheProperties properties,
+                         ReactiveStringRedisTemplate redisTemplate,
+                         MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .weigher((Key key, Entry entry) -> entry.response().getBody().length + key.weight()
+                        + 2 * entry.upstreamPath().length())
+                .expireAfter(new EntryExpiry())
+                .removalListener((Key key, Entry entry, RemovalCause cause) -> {
+                    // A replacement keeps the key live; anything else may drop it from the index
+                    if (key != null && entry != null && cause != RemovalCause.REPLACED) {
+                        unindex(entry.upstreamPath(), key);
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.responses");
+    }
+
+    public Entry get(Key key) {
+        Entry entry = cache.getIfPresent(key);
+        return entry != null && !entry.isStale() ? entry : null;
+    }
+
+    public void put(Key key, String upstreamPath, BufferedResponse response, String etag, Duration ttl) {
+        keysByPath.compute(upstreamPath, (path, keys) -> {
+            Set<Key> indexed = keys != null ? keys : ConcurrentHashMap.newKeySet();
+            indexed.add(key);
+            return indexed;
+        });
+        Entry previous = cache.asMap().put(key, new Entry(upstreamPath, response, etag,
+                System.currentTimeMillis(), System.currentTimeMillis() + ttl.toMillis()));
+        if (previous != null && !previous.upstreamPath().equals(upstreamPath)) {
+            unindex(previous.upstreamPath(), key);
+        }
+    }
+
+    public void invalidate(String pathPattern) {
+        if (pathPattern.endsWith("*")) {
+            String prefix = pathPattern.substring(0, pathPattern.length() - 1);
+            List<String> paths = keysByPath.keySet().stream().filter(path -> path.startsWith(prefix)).toList();
+            paths.forEach(this::invalidatePath);
+        } else {
+            invalidatePath(pathPattern);
+        }
+    }
+
+    private void invalidatePath(String path) {
+        Set<Key> keys = keysByPath.remove(path);
+        if (keys != null) {
+            cache.invalidateAll(keys);
+        }
+    }
+
+    /**
+     * Removal notifications arrive asynchronously, so the key is kept if it was stored again
+     * for the same path in the meantime.
+     */
+    private void unindex(String path, Key key) {
+        keysByPath.computeIfPresent(path, (p, keys) -> {
+            Entry current = cache.asMap().get(key);
+            if (current == null || !current.upstreamPath().equals(p)) {
+                keys.remove(key);
+            }
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    @PostConstruct
+    void subscribe() {
+        invalidationSubscription = redisTemplate.listenToChannel(properties.getInvalidationChannel())
+                .doOnNext(message -> invalidate(message.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Cache invalidation subscription lost, resubscribing: {}",
+                                signal.failure().getMessage())))
+                .subscribe();
+    }
+
+    @PreDestroy
+    void unsubscribe() {
+        if (invalidationSubscription != null) {
+            invalidationSubscription.dispose();
+        }
+    }
+
+    /**
+     * @param scope "public" for shared entries, otherwise the authenticated user id
+     * @param accept the request's Accept header, which the representation may depend on
+     * @param acceptEncoding the request's Accept-Encoding header, likewise
+     */
+    public record Key(String routeId, String path, String query, String scope, String accept, String acceptEncoding) {
+        int weight() {
+            return 2 * (routeId.length() + path.length() + length(query) + scope.length()
+                    + length(accept) + length(acceptEncoding)) + 64;
+        }
+
+        private static int length(String value) {
+            return value != null ? value.length() : 0;
+        }
+    }
+
+    public record Entry(String upstreamPath, BufferedResponse response, String etag, long storedAt, long expiresAt) {
+        boolean isStale() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+
+        public long ageSeconds() {
+            return (System.currentTimeMillis() - storedAt) / 1000;
+        }
+    }
+
+    private static class EntryExpiry implements Expiry<Key, Entry> {
+
+        @Override
+        public long expireAfterCreate(Key key, Entry entry, long currentTime) {
+            return Duration.ofMillis(Math.max(0, entry.expiresAt() - System.currentTimeMillis())).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Key key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package app.cache;
+
+import common.constant.RedisChannel;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Total size of cached bodies held in memory.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Responses larger than this are never cached.
+     */
+    private DataSize maxEntrySize = DataSize.ofKilobytes(256);
+
+    private String invalidationChannel = RedisChannel.GATEWAY_CACHE_INVALIDATION;
+
+    /**
+     * Routes whose GET responses may be cached, keyed by route id.
+     */
+    private Map<String, RouteSettings> routes = new HashMap<>();
+
+    @Data
+    public static class RouteSettings {
+        /**
+         * When true, responses marked Cache-Control: public are shared by all users.
+         * Otherwise entries are kept per authenticated user.
+         */
+        private boolean sharedScope = false;
+    }
+}
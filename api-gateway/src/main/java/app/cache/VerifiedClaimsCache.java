@@ -0,0 +1,112 @@
+package app.cache;
+
+import app.dto.TokenClaims;
+import app.util.JwtUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of verified token claims, keyed on a SHA-256 digest of the raw token.
+ * A hit skips parsing and HMAC verification entirely; entries never outlive the token's
+ * own expiration, and failed verifications are not cached.
+ */
+@Slf4j
+@Component
+public class VerifiedClaimsCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final JwtUtil jwtUtil;
+    private final Cache<String, TokenClaims> cache;
+    private final Counter rejectedCounter;
+
+    public VerifiedClaimsCache(JwtUtil jwtUtil,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.jwt.cache.max-size:100000}") long maxSize,
+                               @Value("${app.jwt.cache.max-ttl:PT5M}") Duration maxTtl) {
+        this.jwtUtil = jwtUtil;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ClaimsExpiry(maxTtl.toNanos()))
+                .recordStats()
+                .build();
+        this.rejectedCounter = Counter.builder("gateway.jwt.rejected")
+                .description("Tokens that failed signature or expiration checks")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.claims");
+    }
+
+    /**
+     * Return the verified claims of the token, or empty if it is invalid or expired.
+     */
+    public Optional<TokenClaims> verify(String token) {
+        String key = digest(token);
+        TokenClaims cached = cache.getIfPresent(key);
+        if (cached != null && !cached.isExpired()) {
+            return Optional.of(cached);
+        }
+
+        try {
+            TokenClaims claims = jwtUtil.verifyToken(token);
+            cache.put(key, claims);
+            return Optional.of(claims);
+        } catch (Exception e) {
+            log.debug("Token verification failed: {}", e.getMessage());
+            rejectedCounter.increment();
+            return Optional.empty();
+        }
+    }
+
+    private static String digest(String token) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        byte[] hash = digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    /**
+     * Expire each entry at the token's own expiration, capped by the configured max TTL.
+     */
+    private record ClaimsExpiry(long maxTtlNanos) implements Expiry<String, TokenClaims> {
+
+        @Override
+        public long expireAfterCreate(String key, TokenClaims value, long currentTime) {
+            if (value.getExpiration() == null) {
+                return maxTtlNanos;
+            }
+            long remainingMillis = value.getExpiration().toEpochMilli() - System.currentTimeMillis();
+            return Math.max(0, Math.min(TimeUnit.MILLISECONDS.toNanos(remainingMillis), maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, TokenClaims value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, TokenClaims value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package app.coalescing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.coalescing")
+public class CoalescingProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Responses larger than this are streamed to the leader only; waiting followers then
+     * issue their own upstream call.
+     */
+    private DataSize maxResponseSize = DataSize.ofKilobytes(256);
+
+    /**
+     * How long a follower waits for the leader before calling upstream itself.
+     */
+    private Duration waitTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Routes eligible for coalescing, keyed by route id.
+     */
+    private Map<String, RouteSettings> routes = new HashMap<>();
+
+    @Data
+    public static class RouteSettings {
+        /**
+         * Whether responses are identical for every authenticated user. When false, only
+         * requests of the same user are collapsed.
+         */
+        private boolean sharedScope = false;
+    }
+}
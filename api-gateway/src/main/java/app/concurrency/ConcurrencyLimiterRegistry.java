@@ -0,0 +1,57 @@
+package app.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Holds one {@link AdaptiveConcurrencyLimiter} per route and publishes its limit and
+ * in-flight count as gauges.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConcurrencyLimiterRegistry {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyLimiter getOrCreate(String routeId, Supplier<AdaptiveConcurrencyLimiter> factory) {
+        AdaptiveConcurrencyLimiter limiter = limiters.get(routeId);
+        if (limiter != null) {
+            return limiter;
+        }
+        return limiters.computeIfAbsent(routeId, id -> {
+            AdaptiveConcurrencyLimiter created = factory.get();
+            Gauge.builder("gateway.concurrency.limit", created, AdaptiveConcurrencyLimiter::getLimit)
+                    .tag("route", id)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.concurrency.in-flight", created, AdaptiveConcurrencyLimiter::getInFlight)
+                    .tag("route", id)
+                    .register(meterRegistry);
+            return created;
+        });
+    }
+
+    public void recordRejection(String routeId) {
+        rejections.computeIfAbsent(routeId, id -> Counter.builder("gateway.concurrency.rejected")
+                .tag("route", id)
+                .register(meterRegistry)).increment();
+    }
+
+    public long getRejections(String routeId) {
+        Counter counter = rejections.get(routeId);
+        return counter != null ? (long) counter.count() : 0;
+    }
+
+    public Map<String, AdaptiveConcurrencyLimiter> getLimiters() {
+        return Collections.unmodifiableMap(limiters);
+    }
+}
@@ -0,0 +1,37 @@
+package app.concurrency;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Current adaptive concurrency state per route, at /actuator/concurrencylimits.
+ */
+@Component
+@Endpoint(id = "concurrencylimits")
+@RequiredArgsConstructor
+public class ConcurrencyLimitsEndpoint {
+
+    private final ConcurrencyLimiterRegistry registry;
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> limits() {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        registry.getLimiters().forEach((routeId, limiter) -> {
+            Map<String, Object> state = new LinkedHashMap<>();
+            state.put("limit", limiter.getLimit());
+            state.put("inFlight", limiter.getInFlight());
+            state.put("minLimit", limiter.getMinLimit());
+            state.put("maxLimit", limiter.getMaxLimit());
+            state.put("baselineRttMillis", limiter.getLongRttMillis());
+            state.put("rejected", registry.getRejections(routeId));
+            result.put(routeId, state);
+        });
+        return result;
+    }
+}
@@ -0,0 +1,27 @@
+package app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Claims of a token whose signature and expiration have already been verified.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class TokenClaims {
+    private final String tokenId;
+    private final String userId;
+    private final String username;
+    private final List<String> roles;
+    private final Instant issuedAt;
+    private final Instant expiration;
+
+    public boolean isExpired() {
+        return expiration != null && !expiration.isAfter(Instant.now());
+    }
+}
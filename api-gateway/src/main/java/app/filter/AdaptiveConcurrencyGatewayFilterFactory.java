@@ -0,0 +1,78 @@
+package app.filter;
+
+import app.concurrency.AdaptiveConcurrencyLimiter;
+import app.concurrency.ConcurrencyLimiterRegistry;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Route filter bounding in-flight requests with an {@link AdaptiveConcurrencyLimiter}.
+ * Requests over the current limit fail fast with 503 instead of queueing in the gateway.
+ * <pre>
+ * filters:
+ *   - name: AdaptiveConcurrency
+ *     args:
+ *       initialLimit: 20
+ *       minLimit: 5
+ *       maxLimit: 200
+ * </pre>
+ */
+@Component
+public class AdaptiveConcurrencyGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<AdaptiveConcurrencyGatewayFilterFactory.Config> {
+
+    private final ConcurrencyLimiterRegistry registry;
+
+    public AdaptiveConcurrencyGatewayFilterFactory(ConcurrencyLimiterRegistry registry) {
+        super(Config.class);
+        this.registry = registry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+            String routeId = route != null ? route.getId() : "default";
+            AdaptiveConcurrencyLimiter limiter = registry.getOrCreate(routeId, () -> new AdaptiveConcurrencyLimiter(
+                    config.getInitialLimit(),
+                    config.getMinLimit(),
+                    config.getMaxLimit(),
+                    config.getSmoothing(),
+                    config.getWindow().toNanos(),
+                    config.getMinWindowSamples()));
+
+            if (!limiter.tryAcquire()) {
+                registry.recordRejection(routeId);
+                ServerHttpResponse response = exchange.getResponse();
+                response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+                return response.setComplete();
+            }
+
+            long start = System.nanoTime();
+            return chain.filter(exchange).doFinally(signal ->
+                    limiter.release(signal == SignalType.CANCEL ? -1 : System.nanoTime() - start));
+        };
+    }
+
+    @Data
+    public static class Config {
+        private int initialLimit = 20;
+        private int minLimit = 5;
+        private int maxLimit = 200;
+        private double smoothing = 0.2;
+        private Duration window = Duration.ofSeconds(1);
+        private int minWindowSamples = 10;
+    }
+}
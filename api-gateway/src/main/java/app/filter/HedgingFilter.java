@@ -0,0 +1,289 @@
+package app.filter;
+
+import app.filter.support.ClaimingResponseDecorator;
+import app.hedging.HedgeBudget;
+import app.hedging.HedgeRace;
+import app.hedging.HedgingProperties;
+import app.hedging.RouteLatencyTracker;
+import app.loadbalancer.InstanceStatsRegistry;
+import app.loadbalancer.LatencyAwareLoadBalancer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientRequest;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.PRESERVE_HOST_HEADER_ATTRIBUTE;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.isAlreadyRouted;
+
+/**
+ * Hedged reads for routes listed under {@code app.hedging.routes}. The GET goes to the
+ * instance chosen by the load balancer through the normal Netty routing filters; if it has
+ * not answered within the route's observed latency percentile, a second copy goes to a
+ * different instance and whichever answers first is streamed to the client, the other being
+ * cancelled. Hedges are capped by a per-route budget.
+ * <p>
+ * Only the hedge is proxied here, with the gateway's HTTP client and the route's response
+ * timeout. Hedging covers slow answers, not failed ones: a primary that fails before any
+ * answer arrived fails the request as on any other route.
+ */
+@Component
+public class HedgingFilter implements GlobalFilter, Ordered {
+
+    /**
+     * {@code System.nanoTime()} at which a hedge's answer won, so the primary is not charged
+     * for the hedge.
+     */
+    public static final String HEDGE_WON_AT_ATTR = HedgingFilter.class.getName() + ".hedgeWonAt";
+
+    private final HedgingProperties properties;
+    private final HttpClientProperties httpClientProperties;
+    private final LoadBalancerClientFactory loadBalancerClientFactory;
+    private final InstanceStatsRegistry statsRegistry;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider;
+    private final MeterRegistry meterRegistry;
+    private final WebClient webClient;
+
+    private final Map<String, RouteLatencyTracker> trackers = new ConcurrentHashMap<>();
+    private final Map<String, HedgeBudget> budgets = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public HedgingFilter(HedgingProperties properties,
+                         HttpClientProperties httpClientProperties,
+                         LoadBalancerClientFactory loadBalancerClientFactory,
+                         InstanceStatsRegistry statsRegistry,
+                         ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+                         MeterRegistry meterRegistry,
+                         HttpClient httpClient,
+                         WebClient.Builder webClientBuilder) {
+        this.properties = properties;
+        this.httpClientProperties = httpClientProperties;
+        this.loadBalancerClientFactory = loadBalancerClientFactory;
+        this.statsRegistry = statsRegistry;
+        this.headersFiltersProvider = headersFiltersProvider;
+        this.meterRegistry = meterRegistry;
+        // The gateway's own client, so hedges get the same pool, connect timeout and TLS settings
+        this.webClient = webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        URI requestUrl = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        Response<ServiceInstance> lbResponse = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (!properties.isEnabled() || isAlreadyRouted(exchange) || route == null || requestUrl == null
+                || lbResponse == null || !lbResponse.hasServer()
+                || !HttpMethod.GET.equals(exchange.getRequest().getMethod())) {
+            return chain.filter(exchange);
+        }
+
+        HedgingProperties.RouteSettings settings = properties.getRoutes().get(route.getId());
+        if (settings == null) {
+            return chain.filter(exchange);
+        }
+
+        String routeId = route.getId();
+        RouteLatencyTracker tracker = trackers.computeIfAbsent(routeId,
+                id -> new RouteLatencyTracker(meterRegistry, id, settings));
+        HedgeBudget budget = budgets.computeIfAbsent(routeId,
+                id -> new HedgeBudget(properties.getBudgetRatio(), properties.getMaxBudget()));
+        budget.deposit();
+
+        ServiceInstance primary = lbResponse.getServer();
+        HedgeRace race = new HedgeRace(tracker, System.nanoTime());
+        ClaimingResponseDecorator primaryResponse =
+                new ClaimingResponseDecorator(exchange.getResponse(), race, exchange.getAttributes());
+        ServerWebExchange primaryExchange = exchange.mutate()
+                .response(primaryResponse)
+                .build();
+
+        // Once the hedge owns the response, the primary's outcome no longer matters and it
+        // must not end the race before the hedge has been written
+        Mono<Void> primaryCall = chain.filter(primaryExchange)
+                .onErrorResume(e -> race.isWonBy(HedgeRace.Attempt.HEDGE) ? Mono.empty() : Mono.error(e))
+                .then(Mono.defer(() -> race.isWonBy(HedgeRace.Attempt.HEDGE) ? Mono.<Void>never() : Mono.empty()))
+                .doOnCancel(race::recordPrimary);
+
+        // Likewise a hedge that was not sent, lost or failed before answering never ends it. A
+        // winning hedge drops any primary connection stored meanwhile before completing, as the
+        // write filter reads it right after
+        Mono<Void> hedgeCall = Mono.delay(tracker.hedgeDelay())
+                .then(Mono.defer(() -> hedge(exchange, route, requestUrl, primary, race, budget)))
+                .then(Mono.defer(() -> {
+                    if (!race.isWonBy(HedgeRace.Attempt.HEDGE)) {
+                        return Mono.never();
+                    }
+                    primaryResponse.releaseUpstream();
+                    return Mono.empty();
+                }))
+                .doOnError(e -> {
+                    if (race.isWonBy(HedgeRace.Attempt.HEDGE)) {
+                        primaryResponse.releaseUpstream();
+                    }
+                });
+
+        return Mono.firstWithSignal(primaryCall, hedgeCall);
+    }
+
+    private Mono<Void> hedge(ServerWebExchange exchange, Route route, URI requestUrl, ServiceInstance primary,
+                             HedgeRace race, HedgeBudget budget) {
+        String routeId = route.getId();
+        if (race.isClaimed()) {
+            return Mono.empty();
+        }
+        if (!budget.tryWithdraw()) {
+            hedges(routeId, "budget-exhausted").increment();
+            return Mono.empty();
+        }
+        return chooseOther(primary)
+                .flatMap(other -> {
+                    hedges(routeId, "sent").increment();
+                    return sendTo(other, exchange, route, requestUrl, race);
+                })
+                .onErrorResume(e -> {
+                    if (race.isWonBy(HedgeRace.Attempt.HEDGE)) {
+                        return Mono.error(e);
+                    }
+                    hedges(routeId, "failed").increment();
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<ServiceInstance> chooseOther(ServiceInstance primary) {
+        ReactorServiceInstanceLoadBalancer loadBalancer = loadBalancerClientFactory.getInstance(primary.getServiceId());
+        if (!(loadBalancer instanceof LatencyAwareLoadBalancer latencyAware)) {
+            return Mono.empty();
+        }
+        return latencyAware.chooseExcluding(new DefaultRequest<>(), primary)
+                .filter(Response::hasServer)
+                .map(Response::getServer);
+    }
+
+    /**
+     * Streams the hedge's answer to the client if it arrives first and is not a server error;
+     * otherwise its body is released unread.
+     */
+    private Mono<Void> sendTo(ServiceInstance instance, ServerWebExchange exchange, Route route, URI requestUrl,
+                              HedgeRace race) {
+        URI uri = UriComponentsBuilder.fromUri(requestUrl)
+                .scheme(instance.isSecure() ? "https" : "http")
+                .host(instance.getHost())
+                .port(instance.getPort())
+                .build(true)
+                .toUri();
+        HttpHeaders headers = HttpHeadersFilter.filterRequest(headersFiltersProvider.getIfAvailable(), exchange);
+        boolean preserveHost = exchange.getAttributeOrDefault(PRESERVE_HOST_HEADER_ATTRIBUTE, false);
+        Duration responseTimeout = responseTimeout(route);
+
+        long start = System.nanoTime();
+        AtomicBoolean finished = new AtomicBoolean();
+        statsRegistry.requestStarted(instance);
+        return webClient.get()
+                .uri(uri)
+                .headers(target -> {
+                    target.addAll(headers);
+                    if (!preserveHost) {
+                        // Let the client derive it from the instance, as the Netty routing filter does
+                        target.remove(HttpHeaders.HOST);
+                    }
+                })
+                .httpRequest(request -> {
+                    if (responseTimeout != null) {
+                        request.<HttpClientRequest>getNativeRequest().responseTimeout(responseTimeout);
+                    }
+                })
+                .exchangeToMono(response -> {
+                    boolean serverError = response.statusCode().is5xxServerError();
+                    if (finished.compareAndSet(false, true)) {
+                        statsRegistry.requestFinished(instance, System.nanoTime() - start, serverError);
+                    }
+                    if (serverError || !race.claim(HedgeRace.Attempt.HEDGE)) {
+                        return response.releaseBody();
+                    }
+                    exchange.getAttributes().put(HEDGE_WON_AT_ATTR, System.nanoTime());
+                    hedges(route.getId(), "won").increment();
+                    return write(exchange, response);
+                })
+                .doFinally(signal -> {
+                    if (finished.compareAndSet(false, true)) {
+                        statsRegistry.requestFinished(instance,
+                                signal == SignalType.CANCEL ? -1 : System.nanoTime() - start,
+                                signal == SignalType.ON_ERROR);
+                    }
+                });
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, ClientResponse upstream) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders filtered = HttpHeadersFilter.filter(headersFiltersProvider.getIfAvailable(),
+                upstream.headers().asHttpHeaders(), exchange, HttpHeadersFilter.Type.RESPONSE);
+
+        response.setStatusCode(upstream.statusCode());
+        if (!filtered.containsKey(HttpHeaders.TRANSFER_ENCODING) && filtered.containsKey(HttpHeaders.CONTENT_LENGTH)) {
+            response.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+        }
+        response.getHeaders().putAll(filtered);
+        return response.writeWith(upstream.bodyToFlux(DataBuffer.class));
+    }
+
+    /**
+     * The route's {@code response-timeout} metadata, else the gateway-wide one; null for none.
+     */
+    private Duration responseTimeout(Route route) {
+        Object timeout = route.getMetadata().get(RESPONSE_TIMEOUT_ATTR);
+        if (timeout == null) {
+            return httpClientProperties.getResponseTimeout();
+        }
+        long millis = timeout instanceof Number number ? number.longValue() : Long.parseLong(timeout.toString());
+        return millis >= 0 ? Duration.ofMillis(millis) : null;
+    }
+
+    private Counter hedges(String routeId, String outcome) {
+        return counters.computeIfAbsent(routeId + ":" + outcome, key -> Counter.builder("gateway.hedging.hedges")
+                .tag("route", routeId)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 2;
+    }
+}
@@ -0,0 +1,58 @@
+package app.filter;
+
+import app.loadbalancer.InstanceStatsRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+
+/**
+ * Feeds in-flight counts, time-to-response and errors of the instance picked by the load
+ * balancer into {@link InstanceStatsRegistry}. Runs right after the load balancer filter
+ * and uses doFinally so cancelled requests never leak an in-flight slot.
+ */
+@Component
+@RequiredArgsConstructor
+public class InstanceStatsFilter implements GlobalFilter, Ordered {
+
+    private final InstanceStatsRegistry statsRegistry;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> lbResponse = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return chain.filter(exchange);
+        }
+
+        ServiceInstance instance = lbResponse.getServer();
+        long start = System.nanoTime();
+        statsRegistry.requestStarted(instance);
+        return chain.filter(exchange).doFinally(signal -> {
+            Long hedgeWonAt = exchange.getAttribute(HedgingFilter.HEDGE_WON_AT_ATTR);
+            if (hedgeWonAt != null) {
+                // Lost to a hedge: charged up to the hedge's answer, and not for the hedge's outcome
+                statsRegistry.requestFinished(instance, hedgeWonAt - start, false);
+                return;
+            }
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            boolean error = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+            long latency = signal == SignalType.CANCEL ? -1 : System.nanoTime() - start;
+            statsRegistry.requestFinished(instance, latency, error);
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+    }
+}
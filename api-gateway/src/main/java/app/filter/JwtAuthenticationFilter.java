@@ -1,6 +1,8 @@
 package app.filter;
 
-import app.util.JwtUtil;
+import app.cache.VerifiedClaimsCache;
+import app.dto.TokenClaims;
+import app.revocation.RevokedTokenRegistry;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
@@ -12,16 +14,31 @@ import reactor.core.publisher.Mono;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
-    private final JwtUtil jwtUtil;
+    /**
+     * Runs ahead of the response-writing filter so that filters decorating the response
+     * (coalescing, caching) only ever see authenticated requests.
+     */
+    public static final int ORDER = -100;
 
-    private final List<String> excludedPaths = Arrays.asList("/auth/login", "/auth/register", "/auth/verify");
+    /**
+     * Exchange attribute holding the authenticated user id, for filters that must not
+     * trust a client-supplied X-User-Id header.
+     */
+    public static final String USER_ID_ATTR = "app.authenticatedUserId";
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil) {
-        this.jwtUtil = jwtUtil;
+    private final VerifiedClaimsCache verifiedClaimsCache;
+    private final RevokedTokenRegistry revokedTokenRegistry;
+
+    private final List<String> excludedPaths = Arrays.asList("/auth/login", "/auth/register", "/auth/verify", "/auth/availability");
+
+    public JwtAuthenticationFilter(VerifiedClaimsCache verifiedClaimsCache, RevokedTokenRegistry revokedTokenRegistry) {
+        this.verifiedClaimsCache = verifiedClaimsCache;
+        this.revokedTokenRegistry = revokedTokenRegistry;
     }
 
     @Override
@@ -42,15 +59,32 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
         String token = authHeader.substring(7);
 
-        if (!jwtUtil.isTokenValid(token)) {
+        Optional<TokenClaims> verified = verifiedClaimsCache.verify(token);
+        if (verified.isEmpty()) {
             return handleUnauthorized(exchange);
         }
+        TokenClaims claims = verified.get();
+
+        // Only Bloom positives pay for a Redis round trip; if Redis is unreachable they are rejected
+        if (revokedTokenRegistry.mightBeRevoked(claims)) {
+            return revokedTokenRegistry.isRevoked(claims)
+                    .onErrorReturn(true)
+                    .flatMap(revoked -> revoked
+                            ? handleUnauthorized(exchange)
+                            : proceed(exchange, chain, claims));
+        }
+        return proceed(exchange, chain, claims);
+    }
+
+    private Mono<Void> proceed(ServerWebExchange exchange, GatewayFilterChain chain, TokenClaims claims) {
+        ServerHttpRequest request = exchange.getRequest();
+        exchange.getAttributes().put(USER_ID_ATTR, claims.getUserId());
 
         // Add user context to headers for downstream services
         ServerHttpRequest modifiedRequest = request.mutate()
-                .header("X-User-Id", jwtUtil.getUserIdFromToken(token))
-                .header("X-Username", jwtUtil.getUsernameFromToken(token))
-                .header("X-User-Roles", String.join(",", jwtUtil.getRolesFromToken(token)))
+                .header("X-User-Id", claims.getUserId())
+                .header("X-Username", claims.getUsername())
+                .header("X-User-Roles", String.join(",", claims.getRoles()))
                 .build();
 
         return chain.filter(exchange.mutate().request(modifiedRequest).build());
@@ -62,6 +96,6 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
     @Override
     public int getOrder() {
-        return 1;
+        return ORDER;
     }
 }
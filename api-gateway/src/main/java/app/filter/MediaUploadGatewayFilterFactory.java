@@ -0,0 +1,106 @@
+package app.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Route filter for media uploads. The body is never aggregated: chunks flow from the
+ * client connection to the downstream connection as they arrive, with Reactor Netty
+ * backpressure in between, so memory per upload stays constant. Oversized uploads are
+ * rejected from Content-Length before any body is read, and chunked uploads are cut off
+ * as soon as they cross the limit.
+ * <pre>
+ * filters:
+ *   - name: MediaUpload
+ *     args:
+ *       maxSize: 100MB
+ * </pre>
+ */
+@Component
+public class MediaUploadGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<MediaUploadGatewayFilterFactory.Config> {
+
+    private final AtomicInteger activeUploads = new AtomicInteger();
+    private final AtomicLong bytesInFlight = new AtomicLong();
+    private final Counter bytesReceived;
+    private final Counter rejected;
+
+    public MediaUploadGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        Gauge.builder("gateway.uploads.active", activeUploads, AtomicInteger::get)
+                .description("Uploads currently being streamed")
+                .register(meterRegistry);
+        Gauge.builder("gateway.uploads.bytes-in-flight", bytesInFlight, AtomicLong::get)
+                .description("Bytes received so far by uploads that are still streaming")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.bytesReceived = Counter.builder("gateway.uploads.bytes")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("gateway.uploads.rejected")
+                .description("Uploads refused for exceeding the size limit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        long maxBytes = config.getMaxSize().toBytes();
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            long contentLength = request.getHeaders().getContentLength();
+            if (contentLength > maxBytes) {
+                rejected.increment();
+                exchange.getResponse().setStatusCode(HttpStatus.PAYLOAD_TOO_LARGE);
+                return exchange.getResponse().setComplete();
+            }
+
+            AtomicLong received = new AtomicLong();
+            ServerHttpRequest counted = new ServerHttpRequestDecorator(request) {
+                @Override
+                public Flux<DataBuffer> getBody() {
+                    return super.getBody().handle((buffer, sink) -> {
+                        int length = buffer.readableByteCount();
+                        long total = received.addAndGet(length);
+                        bytesInFlight.addAndGet(length);
+                        bytesReceived.increment(length);
+                        if (total > maxBytes) {
+                            DataBufferUtils.release(buffer);
+                            rejected.increment();
+                            sink.error(new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE));
+                        } else {
+                            sink.next(buffer);
+                        }
+                    });
+                }
+            };
+
+            activeUploads.incrementAndGet();
+            return chain.filter(exchange.mutate().request(counted).build())
+                    .doFinally(signal -> {
+                        activeUploads.decrementAndGet();
+                        bytesInFlight.addAndGet(-received.get());
+                    });
+        };
+    }
+
+    @Data
+    public static class Config {
+        private DataSize maxSize = DataSize.ofMegabytes(100);
+    }
+}
@@ -0,0 +1,85 @@
+package app.filter;
+
+import app.ratelimit.DistributedRateLimiter;
+import app.ratelimit.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Admission control per route, by authenticated user and by client IP.
+ * Runs right after {@link JwtAuthenticationFilter} so the user id is known.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = JwtAuthenticationFilter.ORDER + 1;
+
+    private final DistributedRateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "default";
+        String userId = exchange.getAttribute(JwtAuthenticationFilter.USER_ID_ATTR);
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        String clientIp = remoteAddress != null && remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress()
+                : null;
+
+        long waitNanos = rateLimiter.tryAcquire(routeId, userId, clientIp);
+        if (waitNanos == 0) {
+            requests(routeId, "allowed").increment();
+            return chain.filter(exchange);
+        }
+
+        requests(routeId, "rejected").increment();
+        return handleTooManyRequests(exchange, waitNanos);
+    }
+
+    private Mono<Void> handleTooManyRequests(ServerWebExchange exchange, long waitNanos) {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(
+                Math.min(waitNanos, TimeUnit.HOURS.toNanos(1)) + TimeUnit.SECONDS.toNanos(1) - 1));
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        return response.setComplete();
+    }
+
+    private Counter requests(String routeId, String result) {
+        return counters.computeIfAbsent(routeId + ":" + result, key -> Counter.builder("gateway.rate-limit.requests")
+                .tag("route", routeId)
+                .tag("result", result)
+                .register(meterRegistry));
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,135 @@
+package app.filter;
+
+import app.coalescing.CoalescingProperties;
+import app.filter.support.BufferedResponse;
+import app.filter.support.CapturingResponseDecorator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Single-flight for idempotent GETs: concurrent identical requests on allowlisted routes
+ * share one upstream call. The first request (leader) goes upstream and its response is
+ * buffered while being streamed back; requests arriving meanwhile (followers) wait and
+ * receive a replay of that buffer. Followers fall back to their own upstream call if the
+ * leader's response is not shareable (non-200, Set-Cookie, too large or failed).
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestCoalescingFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 10;
+
+    private final CoalescingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Sinks.One<BufferedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (!properties.isEnabled() || route == null || !HttpMethod.GET.equals(request.getMethod())
+                || request.getHeaders().containsKey(HttpHeaders.RANGE)) {
+            return chain.filter(exchange);
+        }
+
+        CoalescingProperties.RouteSettings settings = properties.getRoutes().get(route.getId());
+        if (settings == null) {
+            return chain.filter(exchange);
+        }
+
+        String key = key(exchange, route.getId(), settings);
+        Sinks.One<BufferedResponse> sink = Sinks.one();
+        Sinks.One<BufferedResponse> leader = inFlight.putIfAbsent(key, sink);
+        if (leader != null) {
+            return follow(leader, exchange, chain, route.getId());
+        }
+        return lead(key, sink, exchange, chain, route.getId());
+    }
+
+    private Mono<Void> lead(String key, Sinks.One<BufferedResponse> sink,
+                            ServerWebExchange exchange, GatewayFilterChain chain, String routeId) {
+        requests(routeId, "leader").increment();
+        CapturingResponseDecorator response = new CapturingResponseDecorator(
+                exchange.getResponse(),
+                (int) properties.getMaxResponseSize().toBytes(),
+                captured -> {
+                    inFlight.remove(key, sink);
+                    if (isShareable(captured)) {
+                        sink.tryEmitValue(captured);
+                    } else {
+                        sink.tryEmitEmpty();
+                    }
+                },
+                () -> {
+                    inFlight.remove(key, sink);
+                    sink.tryEmitEmpty();
+                });
+
+        return chain.filter(exchange.mutate().response(response).build())
+                .doFinally(signal -> response.abandon());
+    }
+
+    private Mono<Void> follow(Sinks.One<BufferedResponse> leader,
+                              ServerWebExchange exchange, GatewayFilterChain chain, String routeId) {
+        return leader.asMono()
+                .timeout(properties.getWaitTimeout(), Mono.empty())
+                .flatMap(buffered -> {
+                    requests(routeId, "follower").increment();
+                    return buffered.writeTo(exchange.getResponse()).thenReturn(Boolean.TRUE);
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    requests(routeId, "fallback").increment();
+                    return chain.filter(exchange).thenReturn(Boolean.TRUE);
+                }))
+                .then();
+    }
+
+    private static boolean isShareable(BufferedResponse response) {
+        return response.getStatus().value() == HttpStatus.OK.value()
+                && !response.getHeaders().containsKey(HttpHeaders.SET_COOKIE);
+    }
+
+    private static String key(ServerWebExchange exchange, String routeId, CoalescingProperties.RouteSettings settings) {
+        ServerHttpRequest request = exchange.getRequest();
+        HttpHeaders headers = request.getHeaders();
+        String scope = settings.isSharedScope() ? "*" : exchange.getAttribute(JwtAuthenticationFilter.USER_ID_ATTR);
+        return routeId
+                + '|' + request.getURI().getRawPath()
+                + '?' + request.getURI().getRawQuery()
+                + '|' + scope
+                + '|' + headers.getFirst(HttpHeaders.ACCEPT)
+                + '|' + headers.getFirst(HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    private Counter requests(String routeId, String role) {
+        return counters.computeIfAbsent(routeId + ":" + role, key -> Counter.builder("gateway.coalescing.requests")
+                .tag("route", routeId)
+                .tag("role", role)
+                .register(meterRegistry));
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
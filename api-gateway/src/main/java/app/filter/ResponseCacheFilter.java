@@ -0,0 +1,190 @@
+package app.filter;
+
+import app.cache.ResponseCache;
+import app.cache.ResponseCacheProperties;
+import app.filter.support.BufferedResponse;
+import app.filter.support.CapturingResponseDecorator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * HTTP cache for GETs on routes listed under {@code app.response-cache.routes}.
+ * Only 200 responses carrying a positive max-age (or s-maxage) are stored, for as long
+ * as the service allows. A matching {@code If-None-Match} is answered with 304 straight
+ * from the cache, without reaching the backend. Runs before request coalescing, so a
+ * cache miss is also the only request to go upstream.
+ * <p>
+ * Entries are keyed on the gateway path, since this filter must wrap the response writer
+ * and so runs before StripPrefix, and remember the upstream path for invalidation.
+ */
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = RequestCoalescingFilter.ORDER - 10;
+
+    private static final String PUBLIC_SCOPE = "public";
+
+    private final ResponseCacheProperties properties;
+    private final ResponseCache responseCache;
+    private final Counter hits;
+    private final Counter notModified;
+
+    public ResponseCacheFilter(ResponseCacheProperties properties, ResponseCache responseCache, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.responseCache = responseCache;
+        this.hits = Counter.builder("gateway.response-cache.served")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.notModified = Counter.builder("gateway.response-cache.served")
+                .tag("result", "not-modified")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (!properties.isEnabled() || route == null || !HttpMethod.GET.equals(request.getMethod())) {
+            return chain.filter(exchange);
+        }
+
+        ResponseCacheProperties.RouteSettings settings = properties.getRoutes().get(route.getId());
+        String userId = exchange.getAttribute(JwtAuthenticationFilter.USER_ID_ATTR);
+        if (settings == null || (!settings.isSharedScope() && userId == null)) {
+            return chain.filter(exchange);
+        }
+
+        ResponseCache.Key key = new ResponseCache.Key(
+                route.getId(),
+                request.getURI().getRawPath(),
+                request.getURI().getRawQuery(),
+                settings.isSharedScope() ? PUBLIC_SCOPE : userId,
+                request.getHeaders().getFirst(HttpHeaders.ACCEPT),
+                request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING));
+
+        ResponseCache.Entry entry = responseCache.get(key);
+        if (entry != null) {
+            return serveFromCache(exchange, entry);
+        }
+
+        CapturingResponseDecorator response = new CapturingResponseDecorator(
+                exchange.getResponse(),
+                (int) properties.getMaxEntrySize().toBytes(),
+                captured -> store(key, upstreamPath(exchange), captured, settings.isSharedScope()),
+                () -> { });
+        return chain.filter(exchange.mutate().response(response).build());
+    }
+
+    private Mono<Void> serveFromCache(ServerWebExchange exchange, ResponseCache.Entry entry) {
+        ServerHttpResponse response = exchange.getResponse();
+        List<String> ifNoneMatch = exchange.getRequest().getHeaders().getIfNoneMatch();
+        if (ifNoneMatch.contains(entry.etag()) || ifNoneMatch.contains("*")) {
+            notModified.increment();
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().setETag(entry.etag());
+            response.getHeaders().setCacheControl(entry.response().getHeaders().getCacheControl());
+            response.getHeaders().set(HttpHeaders.AGE, Long.toString(entry.ageSeconds()));
+            return response.setComplete();
+        }
+
+        hits.increment();
+        response.getHeaders().set(HttpHeaders.AGE, Long.toString(entry.ageSeconds()));
+        return entry.response().writeTo(response);
+    }
+
+    private void store(ResponseCache.Key key, String upstreamPath, BufferedResponse captured, boolean sharedScope) {
+        if (captured.getStatus().value() != HttpStatus.OK.value()
+                || captured.getHeaders().containsKey(HttpHeaders.SET_COOKIE)) {
+            return;
+        }
+
+        Duration ttl = freshnessLifetime(captured.getHeaders().getCacheControl(), sharedScope);
+        if (ttl == null || ttl.isZero()) {
+            return;
+        }
+
+        String etag = captured.getHeaders().getETag();
+        if (etag == null) {
+            etag = "\"0" + DigestUtils.md5DigestAsHex(captured.getBody()) + '"';
+            captured.getHeaders().setETag(etag);
+        }
+        responseCache.put(key, upstreamPath, captured, etag, ttl);
+    }
+
+    /**
+     * The path after the route's filters rewrote it, as the service sees it.
+     */
+    private static String upstreamPath(ServerWebExchange exchange) {
+        URI requestUrl = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        return requestUrl != null ? requestUrl.getRawPath() : exchange.getRequest().getURI().getRawPath();
+    }
+
+    /**
+     * @return how long the response may be served from cache, or null if it must not be stored
+     */
+    private static Duration freshnessLifetime(String cacheControl, boolean sharedScope) {
+        if (cacheControl == null) {
+            return null;
+        }
+
+        boolean isPublic = false;
+        Long maxAge = null;
+        Long sharedMaxAge = null;
+        for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+            String value = directive.trim();
+            if (value.equals("no-store") || value.equals("no-cache")) {
+                return null;
+            }
+            if (value.equals("private") && sharedScope) {
+                return null;
+            }
+            if (value.equals("public")) {
+                isPublic = true;
+            } else if (value.startsWith("max-age=")) {
+                maxAge = parseSeconds(value.substring("max-age=".length()));
+            } else if (value.startsWith("s-maxage=")) {
+                sharedMaxAge = parseSeconds(value.substring("s-maxage=".length()));
+            }
+        }
+
+        if (sharedScope && !isPublic) {
+            return null;
+        }
+        Long seconds = sharedMaxAge != null ? sharedMaxAge : maxAge;
+        return seconds != null && seconds > 0 ? Duration.ofSeconds(seconds) : null;
+    }
+
+    private static Long parseSeconds(String value) {
+        try {
+            return Long.parseLong(value.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,34 @@
+package app.filter.support;
+
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Fully buffered copy of a downstream response that can be replayed to other clients.
+ */
+@Getter
+public class BufferedResponse {
+
+    private final HttpStatusCode status;
+    private final HttpHeaders headers;
+    private final byte[] body;
+
+    public BufferedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+        HttpHeaders copy = new HttpHeaders();
+        copy.putAll(headers);
+        copy.remove(HttpHeaders.TRANSFER_ENCODING);
+        copy.setContentLength(body.length);
+        this.status = status;
+        this.headers = copy;
+        this.body = body;
+    }
+
+    public Mono<Void> writeTo(ServerHttpResponse response) {
+        response.setStatusCode(status);
+        response.getHeaders().putAll(headers);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(body)));
+    }
+}
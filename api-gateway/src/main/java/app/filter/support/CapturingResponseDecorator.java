@@ -0,0 +1,100 @@
+package app.filter.support;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Streams the response to the client unchanged while keeping a copy of it, as long as the
+ * body stays within {@code maxBytes}. Exactly one of the callbacks fires: {@code onCaptured}
+ * with the buffered response, or {@code onAbandoned} if the body was too large, streamed,
+ * or failed.
+ */
+public class CapturingResponseDecorator extends ServerHttpResponseDecorator {
+
+    private final int maxBytes;
+    private final Consumer<BufferedResponse> onCaptured;
+    private final Runnable onAbandoned;
+    private final AtomicBoolean done = new AtomicBoolean();
+
+    public CapturingResponseDecorator(ServerHttpResponse delegate,
+                                      int maxBytes,
+                                      Consumer<BufferedResponse> onCaptured,
+                                      Runnable onAbandoned) {
+        super(delegate);
+        this.maxBytes = maxBytes;
+        this.onCaptured = onCaptured;
+        this.onAbandoned = onAbandoned;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        AtomicBoolean overflow = new AtomicBoolean();
+
+        Flux<DataBuffer> tee = Flux.from(body).doOnNext(buffer -> {
+            if (overflow.get()) {
+                return;
+            }
+            int length = buffer.readableByteCount();
+            if (captured.size() + length > maxBytes) {
+                overflow.set(true);
+                captured.reset();
+                return;
+            }
+            byte[] bytes = new byte[length];
+            int position = buffer.readPosition();
+            buffer.read(bytes);
+            buffer.readPosition(position);
+            captured.write(bytes, 0, length);
+        });
+
+        return super.writeWith(tee)
+                .doOnSuccess(v -> {
+                    if (overflow.get()) {
+                        abandon();
+                    } else {
+                        capture(captured.toByteArray());
+                    }
+                })
+                .doOnError(e -> abandon())
+                .doOnCancel(this::abandon);
+    }
+
+    @Override
+    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        abandon();
+        return super.writeAndFlushWith(body);
+    }
+
+    @Override
+    public Mono<Void> setComplete() {
+        return super.setComplete().doOnSuccess(v -> capture(new byte[0])).doOnError(e -> abandon());
+    }
+
+    /**
+     * Signal abandonment if nothing was captured yet; used when the exchange ends without
+     * the response ever being written.
+     */
+    public void abandon() {
+        if (done.compareAndSet(false, true)) {
+            onAbandoned.run();
+        }
+    }
+
+    private void capture(byte[] body) {
+        if (done.compareAndSet(false, true)) {
+            HttpStatusCode status = getDelegate().getStatusCode();
+            onCaptured.accept(new BufferedResponse(status != null ? status : HttpStatus.OK, getDelegate().getHeaders(), body));
+        }
+    }
+}
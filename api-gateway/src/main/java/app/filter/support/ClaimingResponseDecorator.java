@@ -0,0 +1,103 @@
+package app.filter.support;
+
+import app.hedging.HedgeRace;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+
+import java.util.Map;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+
+/**
+ * The response as seen by the routing filters of a hedged request's primary attempt. Setting
+ * the status, writing or completing claims the response for the primary; once the hedge owns
+ * it instead, the primary's status, headers and body are dropped.
+ * <p>
+ * The Netty routing filter stores the primary's upstream connection in the exchange attributes
+ * before setting the status, and the write filter streams from it later to the undecorated
+ * response. A primary that loses therefore takes its connection out of the attributes and
+ * disposes it, so the write filter neither writes to the hedge's committed response nor leaves
+ * the pooled connection undrained.
+ */
+public class ClaimingResponseDecorator extends ServerHttpResponseDecorator {
+
+    private final HedgeRace race;
+    private final Map<String, Object> attributes;
+    private final HttpHeaders discardedHeaders = new HttpHeaders();
+
+    public ClaimingResponseDecorator(ServerHttpResponse delegate, HedgeRace race, Map<String, Object> attributes) {
+        super(delegate);
+        this.race = race;
+        this.attributes = attributes;
+    }
+
+    @Override
+    public boolean setStatusCode(HttpStatusCode status) {
+        if (!claim()) {
+            releaseUpstream();
+            return false;
+        }
+        return super.setStatusCode(status);
+    }
+
+    @Override
+    @Deprecated
+    public boolean setRawStatusCode(Integer value) {
+        if (!claim()) {
+            releaseUpstream();
+            return false;
+        }
+        return super.setRawStatusCode(value);
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return race.isWonBy(HedgeRace.Attempt.HEDGE) ? discardedHeaders : super.getHeaders();
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        if (claim()) {
+            return super.writeWith(body);
+        }
+        return Flux.from(body).doOnNext(DataBufferUtils::release).then();
+    }
+
+    @Override
+    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        if (claim()) {
+            return super.writeAndFlushWith(body);
+        }
+        return Flux.from(body).concatMap(Flux::from).doOnNext(DataBufferUtils::release).then();
+    }
+
+    @Override
+    public Mono<Void> setComplete() {
+        return claim() ? super.setComplete() : Mono.empty();
+    }
+
+    /**
+     * Disposes the primary's upstream connection if one is still stored; only to be called
+     * once the hedge owns the response.
+     */
+    public void releaseUpstream() {
+        attributes.remove(CLIENT_RESPONSE_ATTR);
+        Object connection = attributes.remove(CLIENT_RESPONSE_CONN_ATTR);
+        if (connection instanceof Connection upstream) {
+            upstream.dispose();
+        }
+    }
+
+    private boolean claim() {
+        return race.claim(HedgeRace.Attempt.PRIMARY);
+    }
+}
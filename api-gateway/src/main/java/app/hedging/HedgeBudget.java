@@ -0,0 +1,29 @@
+package app.hedging;
+
+/**
+ * Retry-budget style allowance: every request deposits {@code ratio} of a hedge and every
+ * hedge withdraws a whole one, so hedges stay at or below that share of traffic.
+ */
+public class HedgeBudget {
+
+    private final double ratio;
+    private final double max;
+    private double balance;
+
+    public HedgeBudget(double ratio, double max) {
+        this.ratio = ratio;
+        this.max = max;
+    }
+
+    public synchronized void deposit() {
+        balance = Math.min(max, balance + ratio);
+    }
+
+    public synchronized boolean tryWithdraw() {
+        if (balance >= 1) {
+            balance -= 1;
+            return true;
+        }
+        return false;
+    }
+}
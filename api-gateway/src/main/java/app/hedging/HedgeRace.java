@@ -0,0 +1,57 @@
+package app.hedging;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * State of one hedged request: which attempt owns the client response. The first attempt to
+ * get an upstream answer claims it and the other one's answer is dropped.
+ */
+public class HedgeRace {
+
+    public enum Attempt {
+        PRIMARY, HEDGE
+    }
+
+    private final RouteLatencyTracker tracker;
+    private final long startNanos;
+    private final AtomicReference<Attempt> winner = new AtomicReference<>();
+    private final AtomicBoolean primaryRecorded = new AtomicBoolean();
+
+    public HedgeRace(RouteLatencyTracker tracker, long startNanos) {
+        this.tracker = tracker;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Claims the response for the attempt unless the other one already has.
+     *
+     * @return whether the attempt owns the response
+     */
+    public boolean claim(Attempt attempt) {
+        if (winner.compareAndSet(null, attempt)) {
+            recordPrimary();
+            return true;
+        }
+        return winner.get() == attempt;
+    }
+
+    public boolean isClaimed() {
+        return winner.get() != null;
+    }
+
+    public boolean isWonBy(Attempt attempt) {
+        return winner.get() == attempt;
+    }
+
+    /**
+     * Feeds the primary's time to answer into the route percentile, once. A primary that lost
+     * or was cancelled is recorded with the time it had taken so far, a lower bound, so slow
+     * primaries still pull the percentile up instead of dropping out of it.
+     */
+    public void recordPrimary() {
+        if (primaryRecorded.compareAndSet(false, true)) {
+            tracker.record(System.nanoTime() - startNanos);
+        }
+    }
+}
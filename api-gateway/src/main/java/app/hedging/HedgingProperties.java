@@ -0,0 +1,45 @@
+package app.hedging;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.hedging")
+public class HedgingProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Extra load hedging may add, as a share of the route's requests.
+     */
+    private double budgetRatio = 0.05;
+
+    /**
+     * Unused budget that may accumulate for bursts, in requests.
+     */
+    private double maxBudget = 10;
+
+    /**
+     * Routes whose GETs are safe to hedge, keyed by route id.
+     */
+    private Map<String, RouteSettings> routes = new HashMap<>();
+
+    @Data
+    public static class RouteSettings {
+        /**
+         * Observed latency percentile after which the hedge is sent.
+         */
+        private double percentile = 0.95;
+
+        private Duration minDelay = Duration.ofMillis(20);
+
+        /**
+         * Delay used until enough samples exist, and upper bound afterwards.
+         */
+        private Duration maxDelay = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,58 @@
+package app.hedging;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolling latency percentile of one route, backed by a Micrometer timer histogram.
+ * The percentile is recomputed at most once per second, keeping the hot path to a
+ * volatile read.
+ */
+public class RouteLatencyTracker {
+
+    private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long MIN_SAMPLES = 100;
+
+    private final Timer timer;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+
+    private volatile long delayNanos;
+    private volatile long refreshedAt;
+
+    public RouteLatencyTracker(MeterRegistry meterRegistry, String routeId, HedgingProperties.RouteSettings settings) {
+        this.timer = Timer.builder("gateway.hedging.latency")
+                .tag("route", routeId)
+                .publishPercentiles(settings.getPercentile())
+                .distributionStatisticExpiry(Duration.ofMinutes(1))
+                .distributionStatisticBufferLength(3)
+                .register(meterRegistry);
+        this.minDelayNanos = settings.getMinDelay().toNanos();
+        this.maxDelayNanos = settings.getMaxDelay().toNanos();
+        this.delayNanos = maxDelayNanos;
+        this.refreshedAt = System.nanoTime();
+    }
+
+    public void record(long latencyNanos) {
+        timer.record(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public Duration hedgeDelay() {
+        long now = System.nanoTime();
+        if (now - refreshedAt > REFRESH_NANOS) {
+            refreshedAt = now;
+            if (timer.count() >= MIN_SAMPLES) {
+                ValueAtPercentile[] percentiles = timer.takeSnapshot().percentileValues();
+                if (percentiles.length > 0) {
+                    long observed = (long) percentiles[0].value(TimeUnit.NANOSECONDS);
+                    delayNanos = Math.max(minDelayNanos, Math.min(maxDelayNanos, observed));
+                }
+            }
+        }
+        return Duration.ofNanos(delayNanos);
+    }
+}
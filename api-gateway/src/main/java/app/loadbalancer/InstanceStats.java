@@ -0,0 +1,102 @@
+package app.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live statistics of one service instance: in-flight requests, a peak-sensitive EWMA of
+ * response latency and a tumbling error-rate window used for temporary ejection.
+ */
+public class InstanceStats {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final double decayNanos;
+
+    private double latencyNanos;
+    private long lastSampleNanos;
+
+    private long windowStartNanos;
+    private int windowRequests;
+    private int windowErrors;
+    private volatile long ejectedUntilNanos;
+
+    InstanceStats(LoadBalancerProperties properties, long nowNanos) {
+        this.decayNanos = properties.getDecayTime().toNanos();
+        this.latencyNanos = properties.getInitialLatency().toNanos();
+        this.lastSampleNanos = nowNanos;
+        this.windowStartNanos = nowNanos;
+        this.ejectedUntilNanos = nowNanos;
+    }
+
+    public void requestStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Record the outcome of a request that was started with {@link #requestStarted()}.
+     *
+     * @param latencyNanos time to response, or a negative value if the request was cancelled
+     * @return true if this sample pushed the instance over the error threshold
+     */
+    public boolean requestFinished(long latencyNanos, boolean error, LoadBalancerProperties properties, long nowNanos) {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            if (latencyNanos >= 0) {
+                recordLatency(latencyNanos, nowNanos);
+            }
+            if (nowNanos - windowStartNanos > properties.getErrorWindow().toNanos()) {
+                windowStartNanos = nowNanos;
+                windowRequests = 0;
+                windowErrors = 0;
+            }
+            windowRequests++;
+            if (error) {
+                windowErrors++;
+            }
+            if (windowRequests >= properties.getMinRequests()
+                    && (double) windowErrors / windowRequests >= properties.getErrorRateThreshold()) {
+                windowStartNanos = nowNanos;
+                windowRequests = 0;
+                windowErrors = 0;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Peak EWMA: a slower sample takes effect immediately, faster ones are blended in
+     * with a weight that depends on the time since the previous sample.
+     */
+    private void recordLatency(long sampleNanos, long nowNanos) {
+        if (sampleNanos > latencyNanos) {
+            latencyNanos = sampleNanos;
+        } else {
+            double weight = Math.exp(-(nowNanos - lastSampleNanos) / decayNanos);
+            latencyNanos = latencyNanos * weight + sampleNanos * (1 - weight);
+        }
+        lastSampleNanos = nowNanos;
+    }
+
+    public synchronized double getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    /**
+     * Expected cost of sending one more request to this instance.
+     */
+    public double score() {
+        return getLatencyNanos() * (inFlight.get() + 1);
+    }
+
+    public boolean isEjected(long nowNanos) {
+        return nowNanos - ejectedUntilNanos < 0;
+    }
+
+    void eject(long untilNanos) {
+        ejectedUntilNanos = untilNanos;
+    }
+}
@@ -0,0 +1,104 @@
+package app.loadbalancer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Shared per-instance statistics, fed by {@link app.filter.InstanceStatsFilter} and read by
+ * the {@link LatencyAwareLoadBalancer} of every service. Each balancer reports the instances
+ * it was last given, so statistics of instances that left discovery are dropped and the
+ * ejection limit only counts instances still listed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InstanceStatsRegistry {
+
+    private final LoadBalancerProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ServiceStats> statsByService = new ConcurrentHashMap<>();
+
+    private static final class ServiceStats {
+        private final Map<String, InstanceStats> instances = new ConcurrentHashMap<>();
+        private final Counter ejections;
+        private volatile List<ServiceInstance> listed = List.of();
+
+        private ServiceStats(Counter ejections) {
+            this.ejections = ejections;
+        }
+    }
+
+    public InstanceStats get(ServiceInstance instance) {
+        return service(instance.getServiceId()).instances
+                .computeIfAbsent(key(instance), key -> new InstanceStats(properties, System.nanoTime()));
+    }
+
+    /**
+     * Records the instances currently listed for a service and drops the statistics of any
+     * others. Suppliers hand out the same list until discovery changes, so repeated calls with
+     * it cost one comparison.
+     */
+    public void retain(String serviceId, List<ServiceInstance> instances) {
+        ServiceStats service = service(serviceId);
+        if (service.listed == instances) {
+            return;
+        }
+        Set<String> keys = instances.stream().map(InstanceStatsRegistry::key).collect(Collectors.toSet());
+        service.instances.keySet().retainAll(keys);
+        service.listed = instances;
+    }
+
+    public void requestStarted(ServiceInstance instance) {
+        get(instance).requestStarted();
+    }
+
+    /**
+     * @param latencyNanos time to response, or a negative value if the request was cancelled
+     */
+    public void requestFinished(ServiceInstance instance, long latencyNanos, boolean error) {
+        long now = System.nanoTime();
+        InstanceStats stats = get(instance);
+        if (stats.requestFinished(latencyNanos, error, properties, now)) {
+            tryEject(instance, stats, now);
+        }
+    }
+
+    private void tryEject(ServiceInstance instance, InstanceStats stats, long now) {
+        ServiceStats service = service(instance.getServiceId());
+        long ejected = service.instances.values().stream().filter(peer -> peer.isEjected(now)).count();
+        if (ejected + 1 > Math.floor(service.listed.size() * properties.getMaxEjectionPercent())) {
+            log.warn("Not ejecting {}: ejection limit for {} reached", key(instance), instance.getServiceId());
+            return;
+        }
+
+        stats.eject(now + properties.getEjectionDuration().toNanos());
+        service.ejections.increment();
+        log.warn("Ejected {} for {} after error rate exceeded {}",
+                key(instance), properties.getEjectionDuration(), properties.getErrorRateThreshold());
+    }
+
+    /**
+     * Discovery reports service ids in upper case while routes name them in lower case.
+     */
+    private ServiceStats service(String serviceId) {
+        return statsByService.computeIfAbsent(serviceId.toLowerCase(Locale.ROOT), id -> new ServiceStats(
+                Counter.builder("gateway.loadbalancer.ejections")
+                        .tag("service", id)
+                        .register(meterRegistry)));
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+}
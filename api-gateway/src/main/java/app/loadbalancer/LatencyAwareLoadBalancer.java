@@ -0,0 +1,94 @@
+package app.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Power-of-two-choices load balancer: two random healthy instances are compared and the
+ * one with the lower latency EWMA weighted by in-flight requests wins. Ejected instances
+ * are skipped unless every instance is ejected.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final String serviceId;
+    private final InstanceStatsRegistry statsRegistry;
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                    String serviceId,
+                                    InstanceStatsRegistry statsRegistry) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.statsRegistry = statsRegistry;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> select(instances, null));
+    }
+
+    /**
+     * Choose an instance other than {@code excluded}, e.g. as the target of a hedge request.
+     * Returns an empty response if no other instance is available.
+     */
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> chooseExcluding(Request request, ServiceInstance excluded) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> select(instances, excluded));
+    }
+
+    private Response<ServiceInstance> select(List<ServiceInstance> instances, ServiceInstance excluded) {
+        statsRegistry.retain(serviceId, instances);
+        if (excluded != null) {
+            instances = instances.stream()
+                    .filter(instance -> !(instance.getHost().equals(excluded.getHost())
+                            && instance.getPort() == excluded.getPort()))
+                    .toList();
+        }
+
+        long now = System.nanoTime();
+        List<ServiceInstance> candidates = instances.stream()
+                .filter(instance -> !statsRegistry.get(instance).isEjected(now))
+                .toList();
+        if (candidates.isEmpty()) {
+            candidates = instances;
+        }
+
+        if (candidates.isEmpty()) {
+            return new EmptyResponse();
+        }
+        if (candidates.size() == 1) {
+            return new DefaultResponse(candidates.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        return new DefaultResponse(statsRegistry.get(a).score() <= statsRegistry.get(b).score() ? a : b);
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+}
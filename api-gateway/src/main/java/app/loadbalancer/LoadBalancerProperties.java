@@ -0,0 +1,40 @@
+package app.loadbalancer;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.load-balancer")
+public class LoadBalancerProperties {
+
+    /**
+     * Time constant of the latency EWMA; older samples lose weight over this horizon.
+     */
+    private Duration decayTime = Duration.ofSeconds(10);
+
+    /**
+     * Latency assumed for an instance that has not answered anything yet.
+     */
+    private Duration initialLatency = Duration.ofMillis(100);
+
+    /**
+     * Error rate within one window that ejects an instance.
+     */
+    private double errorRateThreshold = 0.5;
+
+    /**
+     * Minimum requests within one window before the error rate is evaluated.
+     */
+    private int minRequests = 20;
+
+    private Duration errorWindow = Duration.ofSeconds(10);
+
+    private Duration ejectionDuration = Duration.ofSeconds(30);
+
+    /**
+     * Upper bound on the share of a service's instances that may be ejected at once.
+     */
+    private double maxEjectionPercent = 0.5;
+}
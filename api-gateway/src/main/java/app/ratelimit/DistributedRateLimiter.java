@@ -0,0 +1,193 @@
+package app.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token-bucket rate limiter that decides locally and reconciles with Redis in batches.
+ * <p>
+ * Every request is admitted or rejected from an in-memory bucket, so the hot path never
+ * touches the network. A background round periodically replays the tokens consumed on
+ * this instance against the shared Redis bucket (one Lua call per batch of keys) and
+ * clamps the local bucket to the global remainder. Cluster-wide over-admission is thus
+ * bounded by one sync interval of refill per instance. If Redis is unavailable the
+ * limiter keeps enforcing local limits and replays the consumption once it is back.
+ */
+@Slf4j
+@Component
+public class DistributedRateLimiter {
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SYNC_SCRIPT = RedisScript.of("""
+            local t = redis.call('TIME')
+            local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)
+            local result = {}
+            for i, key in ipairs(KEYS) do
+                local base = (i - 1) * 3
+                local consumed = tonumber(ARGV[base + 1])
+                local capacity = tonumber(ARGV[base + 2])
+                local rate = tonumber(ARGV[base + 3])
+                local state = redis.call('HMGET', key, 'tokens', 'ts')
+                local tokens = tonumber(state[1]) or capacity
+                local ts = tonumber(state[2]) or now
+                tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate / 1000) - consumed
+                redis.call('HSET', key, 'tokens', tostring(tokens), 'ts', tostring(now))
+                redis.call('PEXPIRE', key, math.ceil(capacity / rate * 1000) + 1000)
+                result[i] = tostring(tokens)
+            end
+            return result
+            """, List.class);
+
+    private final RateLimitProperties properties;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Counter syncFailures;
+
+    private Disposable syncTask;
+
+    public DistributedRateLimiter(RateLimitProperties properties,
+                                  ReactiveStringRedisTemplate redisTemplate,
+                                  MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.syncFailures = Counter.builder("gateway.rate-limit.sync.failures")
+                .description("Reconciliation rounds with Redis that failed")
+                .register(meterRegistry);
+        Gauge.builder("gateway.rate-limit.buckets", buckets, ConcurrentHashMap::size)
+                .description("Token buckets currently held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Take one token from the user bucket (if authenticated) and the client IP bucket of the route.
+     * A request rejected by the IP bucket gets its user token back.
+     *
+     * @return 0 if the request is admitted, otherwise the nanoseconds until a retry may succeed
+     */
+    public long tryAcquire(String routeId, String userId, String clientIp) {
+        long now = System.nanoTime();
+        TokenBucket userBucket = null;
+        if (userId != null) {
+            userBucket = bucket(routeId + ":user:" + userId, properties.userLimit(routeId), now);
+            long wait = userBucket.tryConsume(now);
+            if (wait > 0) {
+                return wait;
+            }
+        }
+        if (clientIp != null) {
+            long wait = bucket(routeId + ":ip:" + clientIp, properties.ipLimit(routeId), now).tryConsume(now);
+            if (wait > 0 && userBucket != null) {
+                userBucket.refund();
+            }
+            return wait;
+        }
+        return 0;
+    }
+
+    private TokenBucket bucket(String key, RateLimitProperties.Limit limit, long now) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(limit, now));
+        }
+        return bucket;
+    }
+
+    @PostConstruct
+    void start() {
+        syncTask = Flux.interval(properties.getSyncInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> sync().onErrorResume(e -> {
+                    syncFailures.increment();
+                    log.warn("Rate limit sync with Redis failed: {}", e.getMessage());
+                    return Mono.empty();
+                }), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (syncTask != null) {
+            syncTask.dispose();
+        }
+    }
+
+    private Mono<Void> sync() {
+        long now = System.nanoTime();
+        long idleNanos = properties.getIdleTimeout().toNanos();
+
+        List<String> keys = new ArrayList<>();
+        List<TokenBucket> dirty = new ArrayList<>();
+        List<Long> consumed = new ArrayList<>();
+        buckets.forEach((key, bucket) -> {
+            long drained = bucket.drainPending();
+            // Negative when a refund landed after the tokens it returns were drained
+            if (drained != 0) {
+                keys.add(properties.getKeyPrefix() + ":" + key);
+                dirty.add(bucket);
+                consumed.add(drained);
+            } else if (bucket.isIdle(now, idleNanos)) {
+                buckets.remove(key, bucket);
+            }
+        });
+
+        if (dirty.isEmpty()) {
+            return Mono.empty();
+        }
+
+        int batchSize = properties.getSyncBatchSize();
+        return Flux.range(0, (dirty.size() + batchSize - 1) / batchSize)
+                .concatMap(batch -> {
+                    int from = batch * batchSize;
+                    int to = Math.min(from + batchSize, dirty.size());
+                    // A failed batch must not keep the rest of the round from syncing
+                    return syncBatch(keys.subList(from, to), dirty.subList(from, to), consumed.subList(from, to))
+                            .onErrorResume(e -> {
+                                syncFailures.increment();
+                                log.warn("Rate limit sync of {} keys with Redis failed: {}", to - from, e.getMessage());
+                                return Mono.empty();
+                            });
+                })
+                .then();
+    }
+
+    private Mono<Void> syncBatch(List<String> keys, List<TokenBucket> batch, List<Long> consumed) {
+        List<String> args = new ArrayList<>(batch.size() * 3);
+        for (int i = 0; i < batch.size(); i++) {
+            TokenBucket bucket = batch.get(i);
+            args.add(Long.toString(consumed.get(i)));
+            args.add(Long.toString(bucket.getCapacity()));
+            args.add(Double.toString(bucket.getRefillPerSecond()));
+        }
+
+        return redisTemplate.execute(SYNC_SCRIPT, keys, args)
+                .next()
+                .defaultIfEmpty(List.of())
+                .doOnNext(result -> {
+                    long now = System.nanoTime();
+                    for (int i = 0; i < batch.size(); i++) {
+                        if (i < result.size()) {
+                            batch.get(i).reconcile(Double.parseDouble(String.valueOf(result.get(i))), now);
+                        } else {
+                            // No result for this key, so its tokens are replayed next round
+                            batch.get(i).restorePending();
+                        }
+                    }
+                })
+                .doOnError(e -> batch.forEach(TokenBucket::restorePending))
+                .then();
+    }
+}
@@ -0,0 +1,67 @@
+package app.ratelimit;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * How often locally consumed tokens are reconciled with Redis.
+     */
+    private Duration syncInterval = Duration.ofMillis(200);
+
+    /**
+     * Buckets untouched for this long are dropped from memory.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(5);
+
+    private String keyPrefix = "gateway:rate-limit";
+
+    /**
+     * Maximum number of buckets reconciled in one Lua script call.
+     */
+    private int syncBatchSize = 500;
+
+    private RouteLimits defaults = new RouteLimits(new Limit(100, 20), new Limit(300, 60));
+
+    /**
+     * Per-route overrides, keyed by route id.
+     */
+    private Map<String, RouteLimits> routes = new HashMap<>();
+
+    public Limit userLimit(String routeId) {
+        RouteLimits route = routes.get(routeId);
+        return route != null && route.getUser() != null ? route.getUser() : defaults.getUser();
+    }
+
+    public Limit ipLimit(String routeId) {
+        RouteLimits route = routes.get(routeId);
+        return route != null && route.getIp() != null ? route.getIp() : defaults.getIp();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RouteLimits {
+        private Limit user;
+        private Limit ip;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        private long capacity;
+        private double refillPerSecond;
+    }
+}
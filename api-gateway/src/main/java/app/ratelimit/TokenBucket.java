@@ -0,0 +1,104 @@
+package app.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local token bucket that remembers how many tokens it handed out since the last
+ * reconciliation, so the consumption can be replayed against the shared Redis bucket.
+ */
+class TokenBucket {
+
+    private final long capacity;
+    private final double refillPerNano;
+
+    private double tokens;
+    private long lastRefillNanos;
+    private long pendingConsumed;
+    private long inFlightConsumed;
+    private volatile long lastAccessNanos;
+
+    TokenBucket(RateLimitProperties.Limit limit, long nowNanos) {
+        this.capacity = limit.getCapacity();
+        this.refillPerNano = limit.getRefillPerSecond() / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = capacity;
+        this.lastRefillNanos = nowNanos;
+        this.lastAccessNanos = nowNanos;
+    }
+
+    long getCapacity() {
+        return capacity;
+    }
+
+    double getRefillPerSecond() {
+        return refillPerNano * TimeUnit.SECONDS.toNanos(1);
+    }
+
+    long getLastAccessNanos() {
+        return lastAccessNanos;
+    }
+
+    /**
+     * Take one token.
+     *
+     * @return 0 if the token was granted, otherwise the nanoseconds until one becomes available
+     */
+    synchronized long tryConsume(long nowNanos) {
+        lastAccessNanos = nowNanos;
+        refill(nowNanos);
+        if (tokens >= 1) {
+            tokens -= 1;
+            pendingConsumed++;
+            return 0;
+        }
+        return refillPerNano > 0 ? (long) Math.ceil((1 - tokens) / refillPerNano) : Long.MAX_VALUE;
+    }
+
+    /**
+     * Give back a token granted by {@link #tryConsume} for a request that was rejected by
+     * another bucket after all.
+     */
+    synchronized void refund() {
+        tokens = Math.min(capacity, tokens + 1);
+        pendingConsumed--;
+    }
+
+    /**
+     * Hand the consumption accumulated since the last call over to a sync round.
+     */
+    synchronized long drainPending() {
+        long drained = pendingConsumed;
+        pendingConsumed = 0;
+        inFlightConsumed = drained;
+        return drained;
+    }
+
+    /**
+     * Clamp the local view to the global one. Tokens taken while the sync round was in
+     * flight are not yet reflected in the Redis result and are subtracted again.
+     */
+    synchronized void reconcile(double globalTokens, long nowNanos) {
+        refill(nowNanos);
+        tokens = Math.min(tokens, globalTokens - pendingConsumed);
+        inFlightConsumed = 0;
+    }
+
+    /**
+     * Give back tokens of a sync round that never reached Redis.
+     */
+    synchronized void restorePending() {
+        pendingConsumed += inFlightConsumed;
+        inFlightConsumed = 0;
+    }
+
+    synchronized boolean isIdle(long nowNanos, long idleNanos) {
+        return pendingConsumed == 0 && inFlightConsumed == 0 && nowNanos - lastAccessNanos > idleNanos;
+    }
+
+    private void refill(long nowNanos) {
+        long elapsed = nowNanos - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * refillPerNano);
+            lastRefillNanos = nowNanos;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package app.revocation;
+
+import app.dto.TokenClaims;
+import common.constant.RedisChannel;
+import common.constant.TokenRevocation;
+import common.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the revocation Bloom filters published by user-service, one per token
+ * expiry generation. Filters are loaded from Redis on a schedule (which also repairs missed
+ * deltas), kept current from the pub/sub delta stream, and dropped once their generation
+ * has expired.
+ * <p>
+ * {@link #mightBeRevoked} does no I/O; only its positives need {@link #isRevoked}.
+ */
+@Slf4j
+@Component
+public class RevokedTokenRegistry {
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Duration resyncInterval;
+    private final Map<Long, BloomFilter> generations = new ConcurrentHashMap<>();
+
+    private Disposable deltaSubscription;
+    private Disposable resyncSubscription;
+
+    public RevokedTokenRegistry(ReactiveStringRedisTemplate redisTemplate,
+                                @Value("${app.revocation.resync-interval:60s}") Duration resyncInterval) {
+        this.redisTemplate = redisTemplate;
+        this.resyncInterval = resyncInterval;
+    }
+
+    public boolean mightBeRevoked(TokenClaims claims) {
+        if (claims.getExpiration() == null) {
+            return false;
+        }
+        BloomFilter filter = generations.get(TokenRevocation.generation(claims.getExpiration().getEpochSecond()));
+        if (filter == null) {
+            return false;
+        }
+        return (claims.getTokenId() != null && filter.mightContain(TokenRevocation.tokenMember(claims.getTokenId())))
+                || filter.mightContain(TokenRevocation.userMember(claims.getUserId()));
+    }
+
+    /**
+     * Exact check against the revocation keys, for Bloom positives.
+     */
+    public Mono<Boolean> isRevoked(TokenClaims claims) {
+        Mono<Boolean> tokenRevoked = claims.getTokenId() == null
+                ? Mono.just(false)
+                : redisTemplate.hasKey(TokenRevocation.TOKEN_KEY_PREFIX + claims.getTokenId());
+        Mono<Boolean> userRevoked = redisTemplate.opsForValue()
+                .get(TokenRevocation.USER_KEY_PREFIX + claims.getUserId())
+                // Both times are whole seconds, so a token issued in the second of the revocation
+                // is revoked too, even if it came just after
+                .map(revokedAt -> claims.getIssuedAt() == null
+                        || claims.getIssuedAt().getEpochSecond() <= Long.parseLong(revokedAt))
+                .defaultIfEmpty(false);
+        return Mono.zip(tokenRevoked, userRevoked, (token, user) -> token || user);
+    }
+
+    @PostConstruct
+    void subscribe() {
+        deltaSubscription = redisTemplate.listenToChannel(RedisChannel.TOKEN_REVOCATION)
+                .doOnNext(message -> applyDelta(message.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Revocation subscription lost, resubscribing: {}",
+                                signal.failure().getMessage())))
+                .subscribe();
+
+        resyncSubscription = Flux.interval(Duration.ZERO, resyncInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> resync()
+                        .onErrorResume(e -> {
+                            log.warn("Revocation filter resync failed: {}", e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    void unsubscribe() {
+        if (deltaSubscription != null) {
+            deltaSubscription.dispose();
+        }
+        if (resyncSubscription != null) {
+            resyncSubscription.dispose();
+        }
+    }
+
+    private void applyDelta(String message) {
+        int separator = message.indexOf(':');
+        if (separator <= 0) {
+            return;
+        }
+        try {
+            long generation = Long.parseLong(message.substring(0, separator));
+            filterFor(generation).add(message.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed revocation delta: {}", message);
+        }
+    }
+
+    /**
+     * Merges every filter in Redis into the local copy, then evicts expired generations.
+     * Merging rather than replacing keeps deltas that arrive while the snapshot is in flight.
+     */
+    private Mono<Void> resync() {
+        return redisTemplate.scan(ScanOptions.scanOptions().match(TokenRevocation.BLOOM_KEY_PREFIX + "*").build())
+                .concatMap(key -> load(key).doOnNext(bitmap -> filterFor(generationOf(key)).merge(bitmap)))
+                .then(Mono.fromRunnable(this::evictExpired));
+    }
+
+    private Mono<byte[]> load(String key) {
+        ByteBuffer rawKey = ByteBuffer.wrap(key.getBytes(StandardCharsets.UTF_8));
+        return redisTemplate.execute(connection -> connection.stringCommands().get(rawKey))
+                .next()
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.remaining()];
+                    buffer.get(bytes);
+                    return bytes;
+                });
+    }
+
+    private void evictExpired() {
+        long now = Instant.now().getEpochSecond();
+        generations.keySet().removeIf(generation -> TokenRevocation.generationEnd(generation) < now);
+    }
+
+    private BloomFilter filterFor(long generation) {
+        return generations.computeIfAbsent(generation, g -> TokenRevocation.newFilter());
+    }
+
+    private static long generationOf(String key) {
+        return Long.parseLong(key.substring(TokenRevocation.BLOOM_KEY_PREFIX.length()));
+    }
+}
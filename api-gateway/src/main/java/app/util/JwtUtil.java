@@ -1,6 +1,8 @@
 package app.util;
 
+import app.dto.TokenClaims;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -15,6 +17,8 @@ public class JwtUtil {
 
     private String secret;
 
+    private volatile JwtParser parser;
+
     public String getUsernameFromToken(String token) {
         return getClaimFromToken(token, Claims::getSubject);
     }
@@ -36,19 +40,52 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Parse and verify the token once, returning its typed claims.
+     * Signature and expiration are both checked by the parser.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+     */
+    @SuppressWarnings("unchecked")
+    public TokenClaims verifyToken(String token) {
+        Claims claims = getAllClaimsFromToken(token);
+        List<String> roles = claims.get("roles", List.class);
+        return TokenClaims.builder()
+                .tokenId(claims.getId())
+                .userId(claims.get("userId", String.class))
+                .username(claims.getSubject())
+                .roles(roles != null ? List.copyOf(roles) : List.of())
+                .issuedAt(claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null)
+                .expiration(claims.getExpiration() != null ? claims.getExpiration().toInstant() : null)
+                .build();
+    }
+
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser().setSigningKey(secret).build().parseClaimsJws(token).getBody();
+        return getParser().parseClaimsJws(token).getBody();
     }
 
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+    /**
+     * The parser is immutable and thread-safe, so it is built once on first use
+     * (after the secret has been bound).
+     */
+    private JwtParser getParser() {
+        JwtParser result = parser;
+        if (result == null) {
+            synchronized (this) {
+                result = parser;
+                if (result == null) {
+                    result = Jwts.parser().setSigningKey(secret).build();
+                    parser = result;
+                }
+            }
+        }
+        return result;
     }
 
     public Boolean isTokenValid(String token) {
         try {
-            Jwts.parser().setSigningKey(secret).build().parseClaimsJws(token);
-            return !isTokenExpired(token);
+            verifyToken(token);
+            return true;
         } catch (Exception e) {
             return false;
         }
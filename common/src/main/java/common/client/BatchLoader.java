@@ -0,0 +1,200 @@
+package common.client;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Collects single-key lookups made within a short window and resolves them with one bulk
+ * call, turning N per-item requests into one. Keys are deduplicated within a batch, and
+ * within an HTTP request every key is fetched at most once (the per-request memo).
+ * <p>
+ * A batch is dispatched when its window elapses or when it reaches the maximum size,
+ * whichever comes first. Keys missing from the bulk result complete with null.
+ */
+@Slf4j
+public class BatchLoader<K, V> {
+
+    private final String name;
+    private final Function<List<K>, Map<K, V>> bulkLoader;
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService dispatcher;
+    private final String memoAttribute;
+
+    private final DistributionSummary batchSize;
+    private final Timer batchWait;
+    private final Timer batchLoad;
+
+    private Batch<K, V> pending;
+
+    public BatchLoader(String name,
+                       Function<List<K>, Map<K, V>> bulkLoader,
+                       int maxBatchSize,
+                       Duration window,
+                       int maxConcurrentBatches,
+                       MeterRegistry meterRegistry) {
+        this.name = name;
+        this.bulkLoader = bulkLoader;
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = window.toNanos();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads(name + "-batch-timer"));
+        this.dispatcher = Executors.newFixedThreadPool(maxConcurrentBatches, daemonThreads(name + "-batch"));
+        this.memoAttribute = BatchLoader.class.getName() + "." + name;
+
+        this.batchSize = DistributionSummary.builder("client.batch.size")
+                .tag("loader", name)
+                .description("Keys per bulk call")
+                .register(meterRegistry);
+        this.batchWait = Timer.builder("client.batch.wait")
+                .tag("loader", name)
+                .description("Time the first key of a batch waited before dispatch")
+                .register(meterRegistry);
+        this.batchLoad = Timer.builder("client.batch.load")
+                .tag("loader", name)
+                .description("Duration of the bulk call")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<V> load(K key) {
+        Map<K, CompletableFuture<V>> memo = requestMemo();
+        if (memo == null) {
+            return enqueue(key);
+        }
+        return memo.computeIfAbsent(key, this::enqueue);
+    }
+
+    /**
+     * Completes with the found values only, keyed as requested.
+     */
+    public CompletableFuture<Map<K, V>> loadMany(Collection<K> keys) {
+        Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+        for (K key : keys) {
+            futures.computeIfAbsent(key, this::load);
+        }
+        return CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    Map<K, V> result = new LinkedHashMap<>();
+                    futures.forEach((key, future) -> {
+                        V value = future.join();
+                        if (value != null) {
+                            result.put(key, value);
+                        }
+                    });
+                    return result;
+                });
+    }
+
+    private CompletableFuture<V> enqueue(K key) {
+        Batch<K, V> full = null;
+        CompletableFuture<V> future;
+        synchronized (this) {
+            if (pending == null) {
+                Batch<K, V> batch = new Batch<>(System.nanoTime());
+                pending = batch;
+                scheduler.schedule(() -> dispatchIfPending(batch), windowNanos, TimeUnit.NANOSECONDS);
+            }
+            future = pending.entries.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (pending.entries.size() >= maxBatchSize) {
+                full = pending;
+                pending = null;
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return future;
+    }
+
+    private void dispatchIfPending(Batch<K, V> batch) {
+        synchronized (this) {
+            if (pending != batch) {
+                return;
+            }
+            pending = null;
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Batch<K, V> batch) {
+        batchWait.record(System.nanoTime() - batch.createdNanos, TimeUnit.NANOSECONDS);
+        batchSize.record(batch.entries.size());
+        try {
+            dispatcher.execute(() -> run(batch));
+        } catch (Exception e) {
+            batch.entries.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private void run(Batch<K, V> batch) {
+        List<K> keys = new ArrayList<>(batch.entries.keySet());
+        try {
+            Map<K, V> values = batchLoad.record(() -> bulkLoader.apply(keys));
+            batch.entries.forEach((key, future) -> future.complete(values != null ? values.get(key) : null));
+        } catch (Exception e) {
+            log.warn("Bulk load of {} keys by {} failed: {}", keys.size(), name, e.getMessage());
+            batch.entries.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * The memo lives in the current HTTP request's attributes, so it is dropped with the request.
+     * Outside a request (or on a thread without the request bound) there is no memo.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<K, CompletableFuture<V>> requestMemo() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Object memo = attributes.getAttribute(memoAttribute, RequestAttributes.SCOPE_REQUEST);
+        if (memo == null) {
+            memo = new ConcurrentHashMap<K, CompletableFuture<V>>();
+            attributes.setAttribute(memoAttribute, memo, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (Map<K, CompletableFuture<V>>) memo;
+    }
+
+    public void shutdown() {
+        scheduler.shutdown();
+        dispatcher.shutdown();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class Batch<K, V> {
+        private final long createdNanos;
+        private final Map<K, CompletableFuture<V>> entries = new LinkedHashMap<>();
+
+        private Batch(long createdNanos) {
+            this.createdNanos = createdNanos;
+        }
+    }
+}
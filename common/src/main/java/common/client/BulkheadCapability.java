@@ -0,0 +1,80 @@
+package common.client;
+
+import common.exception.BusinessException;
+import feign.Capability;
+import feign.Client;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps every Feign client in a semaphore per target service, so a slow dependency can
+ * hold at most its own share of threads and pooled connections. Calls that cannot get a
+ * permit within the configured wait fail with 503 instead of queueing.
+ * <p>
+ * The target is the host of the request URL, which for load-balanced clients is the
+ * service id rather than an instance.
+ */
+@Slf4j
+public class BulkheadCapability implements Capability {
+
+    private final BulkheadProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Semaphore> semaphores = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    public BulkheadCapability(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        if (!properties.isEnabled()) {
+            return client;
+        }
+        return (request, options) -> {
+            String target = URI.create(request.url()).getHost();
+            Semaphore semaphore = semaphores.computeIfAbsent(target, this::newSemaphore);
+            boolean acquired;
+            try {
+                acquired = semaphore.tryAcquire(properties.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+            if (!acquired) {
+                rejections.computeIfAbsent(target, this::newRejectionCounter).increment();
+                log.warn("Bulkhead full for {}, rejecting {}", target, request.url());
+                throw new BusinessException("Service " + target + " is busy", HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            try {
+                return client.execute(request, options);
+            } finally {
+                semaphore.release();
+            }
+        };
+    }
+
+    private Semaphore newSemaphore(String target) {
+        Semaphore semaphore = new Semaphore(properties.maxConcurrentFor(target));
+        Gauge.builder("feign.bulkhead.available", semaphore, Semaphore::availablePermits)
+                .tag("target", target)
+                .register(meterRegistry);
+        return semaphore;
+    }
+
+    private Counter newRejectionCounter(String target) {
+        return Counter.builder("feign.bulkhead.rejected")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+}
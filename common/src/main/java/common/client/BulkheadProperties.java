@@ -0,0 +1,34 @@
+package common.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Concurrency caps for outgoing Feign calls, per target service.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.feign.bulkhead")
+public class BulkheadProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * In-flight calls allowed to a target without its own entry in {@link #targets}.
+     */
+    private int defaultMaxConcurrent = 50;
+
+    /**
+     * How long a call may wait for a permit before failing fast.
+     */
+    private Duration maxWait = Duration.ofMillis(50);
+
+    private Map<String, Integer> targets = new HashMap<>();
+
+    public int maxConcurrentFor(String target) {
+        return targets.getOrDefault(target, defaultMaxConcurrent);
+    }
+}
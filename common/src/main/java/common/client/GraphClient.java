@@ -0,0 +1,30 @@
+package common.client;
+
+import common.dto.ApiResponse;
+import common.dto.IdPageDto;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+import java.util.UUID;
+
+@FeignClient(name = "graph-service", contextId = "graphClient", path = "/graph")
+public interface GraphClient {
+
+    @GetMapping("/users/{userId}/followers")
+    ApiResponse<IdPageDto> getFollowers(@PathVariable("userId") UUID userId,
+                                        @RequestParam(value = "cursor", required = false) String cursor,
+                                        @RequestParam("limit") int limit);
+
+    @GetMapping("/users/{userId}/followers/count")
+    ApiResponse<Long> getFollowerCount(@PathVariable("userId") UUID userId);
+
+    /**
+     * Accounts the user follows that have at least {@code minFollowers} followers.
+     */
+    @GetMapping("/users/{userId}/followees")
+    ApiResponse<List<UUID>> getFollowees(@PathVariable("userId") UUID userId,
+                                         @RequestParam("minFollowers") long minFollowers);
+}
@@ -0,0 +1,17 @@
+package common.client;
+
+import common.dto.ApiResponse;
+import common.dto.IdBatchRequestDto;
+import common.dto.UserProfileDto;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.List;
+
+@FeignClient(name = "user-service", contextId = "userClient", path = "/users")
+public interface UserClient {
+
+    @PostMapping("/batch")
+    ApiResponse<List<UserProfileDto>> getProfiles(@RequestBody IdBatchRequestDto request);
+}
@@ -0,0 +1,59 @@
+package common.client;
+
+import common.dto.ApiResponse;
+import common.dto.IdBatchRequestDto;
+import common.dto.UserProfileDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Batched profile lookups against user-service's {@code POST /users/batch}.
+ */
+@Component
+@Lazy
+public class UserProfileLoader {
+
+    private final BatchLoader<UUID, UserProfileDto> loader;
+
+    public UserProfileLoader(UserClient userClient,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.client.user.batch-window:5ms}") Duration window,
+                             @Value("${app.client.user.max-batch-size:500}") int maxBatchSize,
+                             @Value("${app.client.user.max-concurrent-batches:4}") int maxConcurrentBatches) {
+        this.loader = new BatchLoader<>("user-profile", ids -> fetch(userClient, ids),
+                maxBatchSize, window, maxConcurrentBatches, meterRegistry);
+    }
+
+    public CompletableFuture<UserProfileDto> load(UUID userId) {
+        return loader.load(userId);
+    }
+
+    public CompletableFuture<Map<UUID, UserProfileDto>> loadMany(Collection<UUID> userIds) {
+        return loader.loadMany(userIds);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        loader.shutdown();
+    }
+
+    private static Map<UUID, UserProfileDto> fetch(UserClient userClient, List<UUID> ids) {
+        ApiResponse<List<UserProfileDto>> response = userClient.getProfiles(new IdBatchRequestDto(ids));
+        Map<UUID, UserProfileDto> result = new HashMap<>();
+        if (response != null && response.getData() != null) {
+            response.getData().forEach(profile -> result.put(profile.getId(), profile));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,27 @@
+package common.config;
+
+import common.client.BulkheadCapability;
+import common.client.BulkheadProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the shared service clients in {@code common.client} for every service that scans common.
+ * <p>
+ * With feign-hc5 on the classpath the clients share a pooled Apache HttpClient 5 with
+ * keep-alive (sized by {@code spring.cloud.openfeign.httpclient.*}), and feign-micrometer adds
+ * per-method timers. Both are picked up by Spring Cloud OpenFeign's auto-configuration.
+ */
+@Configuration
+@EnableFeignClients(basePackages = "common.client")
+@EnableConfigurationProperties(BulkheadProperties.class)
+public class FeignConfig {
+
+    @Bean
+    public BulkheadCapability bulkheadCapability(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        return new BulkheadCapability(properties, meterRegistry);
+    }
+}
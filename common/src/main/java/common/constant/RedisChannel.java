@@ -0,0 +1,14 @@
+package common.constant;
+
+public class RedisChannel {
+    /**
+     * Gateway response cache invalidation; the message is a request path as the service sees it
+     * (e.g. {@code /posts/<id>}), or a path prefix ending in '*'.
+     */
+    public static final String GATEWAY_CACHE_INVALIDATION = "gateway:cache:invalidate";
+
+    /**
+     * Token revocation deltas, see {@link TokenRevocation#delta(long, String)}.
+     */
+    public static final String TOKEN_REVOCATION = "auth:revocation";
+}
@@ -0,0 +1,50 @@
+package common.constant;
+
+import common.util.BloomFilter;
+
+/**
+ * Shared layout of the token revocation data written by user-service and read by the gateway.
+ * <p>
+ * Revoked tokens are grouped into generations by expiration time, one Bloom filter per
+ * generation, so a whole filter can be dropped once every token it covers has expired.
+ */
+public class TokenRevocation {
+
+    public static final String BLOOM_KEY_PREFIX = "auth:revoked:bloom:";
+    public static final String TOKEN_KEY_PREFIX = "auth:revoked:token:";
+    public static final String USER_KEY_PREFIX = "auth:revoked:user:";
+
+    public static final long GENERATION_SECONDS = 900;
+
+    public static final long EXPECTED_INSERTIONS = 100_000;
+    public static final double FALSE_POSITIVE_RATE = 0.01;
+    public static final long BLOOM_BITS = BloomFilter.optimalNumBits(EXPECTED_INSERTIONS, FALSE_POSITIVE_RATE);
+    public static final int BLOOM_HASHES = BloomFilter.optimalNumHashes(EXPECTED_INSERTIONS, BLOOM_BITS);
+
+    public static long generation(long expirationEpochSecond) {
+        return Math.floorDiv(expirationEpochSecond, GENERATION_SECONDS);
+    }
+
+    public static long generationEnd(long generation) {
+        return (generation + 1) * GENERATION_SECONDS;
+    }
+
+    public static String tokenMember(String tokenId) {
+        return "token:" + tokenId;
+    }
+
+    public static String userMember(String userId) {
+        return "user:" + userId;
+    }
+
+    public static BloomFilter newFilter() {
+        return new BloomFilter(BLOOM_BITS, BLOOM_HASHES);
+    }
+
+    /**
+     * Pub/sub delta format: {@code <generation>:<member>}.
+     */
+    public static String delta(long generation, String member) {
+        return generation + ":" + member;
+    }
+}
@@ -0,0 +1,20 @@
+package common.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdBatchRequestDto {
+
+    @NotEmpty(message = "Ids are required")
+    @Size(max = 500, message = "At most 500 ids per request")
+    private List<UUID> ids;
+}
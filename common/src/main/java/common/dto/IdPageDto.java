@@ -0,0 +1,21 @@
+package common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdPageDto {
+    private List<UUID> ids;
+    /**
+     * Null on the last page.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,25 @@
+package common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Public profile fields, as shown next to a user's content in other services.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserProfileDto {
+    private UUID id;
+    private String username;
+    private String fullName;
+    private String profilePictureUrl;
+    private String bio;
+    private Boolean isVerified;
+    private Boolean isPrivate;
+}
@@ -0,0 +1,26 @@
+package common.event;
+
+import common.constant.Visibility;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostCreatedEvent {
+
+    private UUID postId;
+    private UUID userId;
+    private Visibility visibility;
+    private List<String> hashtags;
+    private List<String> mentions;
+    private LocalDateTime createdAt;
+
+}
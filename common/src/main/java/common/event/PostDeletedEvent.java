@@ -0,0 +1,21 @@
+package common.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostDeletedEvent {
+
+    private UUID postId;
+    private UUID userId;
+    private LocalDateTime timestamp;
+
+}
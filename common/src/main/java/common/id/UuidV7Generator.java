@@ -0,0 +1,50 @@
+package common.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RFC 9562 UUIDv7: 48-bit Unix millisecond timestamp, then a 12-bit counter in rand_a, then
+ * 62 random bits. The timestamp and counter share one AtomicLong advanced by CAS, so ids are
+ * strictly increasing across all threads in the JVM without a lock. If more than 4096 ids
+ * are requested within a millisecond, the counter carries into the timestamp, which then
+ * runs slightly ahead of the clock until real time catches up.
+ */
+public class UuidV7Generator implements BeforeExecutionGenerator {
+
+    private static final AtomicLong LAST = new AtomicLong();
+
+    public static UUID next() {
+        long now = System.currentTimeMillis() << 12;
+        long current;
+        long next;
+        do {
+            current = LAST.get();
+            next = now > current ? now : current + 1;
+        } while (!LAST.compareAndSet(current, next));
+
+        long timestamp = next >>> 12;
+        long counter = next & 0xFFF;
+        long msb = (timestamp << 16) | 0x7000L | counter;
+        long lsb = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
@@ -0,0 +1,46 @@
+package common.outbox;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the transactional outbox for services that set {@code outbox.enabled=true};
+ * they must have a JDBC DataSource (PostgreSQL) and a transaction manager.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "outbox.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class OutboxConfig {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void createTable() {
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS outbox (
+                    id BIGSERIAL PRIMARY KEY,
+                    topic VARCHAR(255) NOT NULL,
+                    event_key VARCHAR(255),
+                    payload TEXT NOT NULL,
+                    payload_type VARCHAR(255) NOT NULL,
+                    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+                )""");
+        // Rows the relay cannot read, kept for inspection and manual replay
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS outbox_dead_letter (
+                    id BIGINT PRIMARY KEY,
+                    topic VARCHAR(255) NOT NULL,
+                    event_key VARCHAR(255),
+                    payload TEXT NOT NULL,
+                    payload_type VARCHAR(255) NOT NULL,
+                    created_at TIMESTAMPTZ NOT NULL,
+                    error TEXT,
+                    failed_at TIMESTAMPTZ NOT NULL DEFAULT now()
+                )""");
+    }
+}
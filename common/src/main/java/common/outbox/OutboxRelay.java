@@ -0,0 +1,174 @@
+package common.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox into Kafka in id order, a batch per transaction. Rows are claimed with
+ * {@code FOR UPDATE SKIP LOCKED}, so relays on several instances take disjoint batches
+ * instead of blocking each other; rows are deleted only once Kafka has acknowledged the
+ * whole batch, so a crash re-sends rather than loses (delivery is at least once).
+ * <p>
+ * Order holds within a batch; with several instances, batches may be published concurrently.
+ * <p>
+ * A row that cannot be deserialized (bad JSON, or a payload class that no longer exists) is
+ * moved to {@code outbox_dead_letter} in the same transaction instead of blocking the rows
+ * behind it; nothing is sent before the whole batch has been read.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "outbox.enabled", havingValue = "true")
+public class OutboxRelay {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final Duration sendTimeout;
+
+    private final Counter relayedCounter;
+    private final Counter failedCounter;
+    private final Counter deadLetteredCounter;
+    private final Timer batchTimer;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate,
+                       TransactionTemplate transactionTemplate,
+                       KafkaTemplate<String, Object> kafkaTemplate,
+                       ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry,
+                       @Value("${outbox.batch-size:500}") int batchSize,
+                       @Value("${outbox.send-timeout:30s}") Duration sendTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+
+        this.relayedCounter = Counter.builder("outbox.relayed")
+                .description("Events published from the outbox")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("outbox.relay.failures")
+                .description("Batches rolled back after a send failure")
+                .register(meterRegistry);
+        this.deadLetteredCounter = Counter.builder("outbox.dead-lettered")
+                .description("Events moved to the dead-letter table because they could not be read")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("outbox.relay.batch")
+                .description("Time to claim, publish and delete one batch")
+                .register(meterRegistry);
+        Gauge.builder("outbox.lag", lagMillis, AtomicLong::get)
+                .description("Age of the oldest unpublished event")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Keeps going while batches come back full, so a backlog drains without waiting for the next tick.
+     */
+    @Scheduled(fixedDelayString = "${outbox.poll-interval:200}")
+    public void relay() {
+        try {
+            int relayed;
+            do {
+                relayed = batchTimer.record(() -> transactionTemplate.execute(status -> relayBatch()));
+            } while (relayed == batchSize);
+        } catch (Exception e) {
+            failedCounter.increment();
+            log.warn("Outbox relay failed, will retry: {}", e.getMessage());
+        } finally {
+            updateLag();
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxRecord> records = jdbcTemplate.query(
+                "SELECT id, topic, event_key, payload, payload_type FROM outbox ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED",
+                (rs, rowNum) -> new OutboxRecord(rs.getLong("id"), rs.getString("topic"), rs.getString("event_key"),
+                        rs.getString("payload"), rs.getString("payload_type")),
+                batchSize);
+        if (records.isEmpty()) {
+            return 0;
+        }
+
+        // Read everything first, so an unreadable row cannot roll back sends already made
+        List<OutboxRecord> readable = new ArrayList<>(records.size());
+        List<Object> events = new ArrayList<>(records.size());
+        List<Object[]> unreadable = new ArrayList<>();
+        for (OutboxRecord record : records) {
+            try {
+                events.add(objectMapper.readValue(record.payload(), Class.forName(record.payloadType())));
+                readable.add(record);
+            } catch (Exception e) {
+                log.error("Cannot read outbox event {} of type {}, moving it to the dead-letter table",
+                        record.id(), record.payloadType(), e);
+                unreadable.add(new Object[]{e.toString(), record.id()});
+            }
+        }
+        if (!unreadable.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO outbox_dead_letter " +
+                    "(id, topic, event_key, payload, payload_type, created_at, error) " +
+                    "SELECT id, topic, event_key, payload, payload_type, created_at, ? FROM outbox WHERE id = ? " +
+                    "ON CONFLICT (id) DO NOTHING", unreadable);
+            jdbcTemplate.batchUpdate("DELETE FROM outbox WHERE id = ?",
+                    unreadable.stream().map(row -> new Object[]{row[1]}).toList());
+            deadLetteredCounter.increment(unreadable.size());
+        }
+
+        // Sends are pipelined; the producer's linger and batch settings group them into few requests
+        List<CompletableFuture<?>> sends = new ArrayList<>(readable.size());
+        for (int i = 0; i < readable.size(); i++) {
+            OutboxRecord record = readable.get(i);
+            sends.add(kafkaTemplate.send(record.topic(), record.key(), events.get(i)));
+        }
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                    .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException("Kafka did not acknowledge outbox batch", e);
+        }
+
+        List<Object[]> ids = readable.stream().map(record -> new Object[]{record.id()}).toList();
+        jdbcTemplate.batchUpdate("DELETE FROM outbox WHERE id = ?", ids);
+        relayedCounter.increment(readable.size());
+        return records.size();
+    }
+
+    /**
+     * The oldest row by primary key, so the gauge costs one index probe rather than a scan.
+     */
+    private void updateLag() {
+        try {
+            List<Timestamp> oldest = jdbcTemplate.queryForList(
+                    "SELECT created_at FROM outbox ORDER BY id LIMIT 1", Timestamp.class);
+            lagMillis.set(oldest.isEmpty() ? 0 : Math.max(0, Instant.now().toEpochMilli() - oldest.get(0).getTime()));
+        } catch (Exception e) {
+            log.debug("Could not read outbox lag: {}", e.getMessage());
+        }
+    }
+
+    private record OutboxRecord(long id, String topic, String key, String payload, String payloadType) {
+    }
+}
@@ -0,0 +1,35 @@
+package common.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records events for {@link OutboxRelay} to publish. The row is written in the caller's
+ * transaction, so the event is published if and only if the business change commits.
+ */
+@Service
+@ConditionalOnProperty(name = "outbox.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String topic, String key, Object event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Event is not serializable: " + event.getClass().getName(), e);
+        }
+        jdbcTemplate.update("INSERT INTO outbox (topic, event_key, payload, payload_type) VALUES (?, ?, ?, ?)",
+                topic, key, payload, event.getClass().getName());
+    }
+}
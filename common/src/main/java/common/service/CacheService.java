@@ -6,6 +6,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Slf4j
@@ -50,6 +53,30 @@ public class CacheService {
         return redisService.get(cacheKey, clazz);
     }
 
+    /**
+     * Get many keys in one round trip; only hits are returned, keyed as requested
+     */
+    public <T> Map<String, T> getAllFromCache(List<String> keys, Class<T> clazz) {
+        List<String> cacheKeys = keys.stream().map(this::buildKey).toList();
+        List<T> values = redisService.multiGet(cacheKeys, clazz);
+        Map<String, T> result = new HashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (values.get(i) != null) {
+                result.put(keys.get(i), values.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Cache many values with custom TTL in one round trip
+     */
+    public void cacheAll(Map<String, ?> values, Duration ttl) {
+        Map<String, Object> cacheValues = new HashMap<>();
+        values.forEach((key, value) -> cacheValues.put(buildKey(key), value));
+        redisService.multiSet(cacheValues, ttl);
+    }
+
     /**
      * Cache or get pattern
      */
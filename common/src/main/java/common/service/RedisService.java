@@ -3,21 +3,39 @@ package common.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.zset.DefaultTuple;
+import org.springframework.data.redis.connection.zset.Tuple;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RedisService {
 
+    private static final byte[] HINCRBY_IF_PRESENT = ("if redis.call('HEXISTS', KEYS[1], ARGV[1]) == 0 then return 0 end " +
+            "for i = 2, #ARGV, 2 do redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+            "return 1").getBytes(StandardCharsets.UTF_8);
+    private static final byte[] HSET_IF_ABSENT = ("if redis.call('HEXISTS', KEYS[1], ARGV[1]) == 1 then return 0 end " +
+            "redis.call('HSET', KEYS[1], unpack(ARGV, 3)) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[2]) " +
+            "return 1").getBytes(StandardCharsets.UTF_8);
+
     private final RedisTemplate<String, Object> redisTemplate;
     private final StringRedisTemplate stringRedisTemplate;
     private final ObjectMapper objectMapper;
@@ -48,6 +66,18 @@ public class RedisService {
         }
     }
 
+    /**
+     * Set string value với TTL, readable by plain string clients (e.g. the gateway)
+     */
+    public void setString(String key, String value, Duration ttl) {
+        try {
+            stringRedisTemplate.opsForValue().set(key, value, ttl);
+        } catch (Exception e) {
+            log.error("Error setting string key: {}", key, e);
+            throw new RuntimeException("Redis set operation failed", e);
+        }
+    }
+
     /**
      * Get value
      */
@@ -64,6 +94,45 @@ public class RedisService {
         }
     }
 
+    /**
+     * Get many values in one MGET; the result lines up with keys, with null for misses
+     */
+    public <T> List<T> multiGet(List<String> keys, Class<T> clazz) {
+        List<T> result = new ArrayList<>(keys.size());
+        try {
+            List<Object> values = redisTemplate.opsForValue().multiGet(keys);
+            for (int i = 0; i < keys.size(); i++) {
+                Object value = values != null ? values.get(i) : null;
+                result.add(value != null ? objectMapper.convertValue(value, clazz) : null);
+            }
+        } catch (Exception e) {
+            log.error("Error getting keys: {}", keys, e);
+            result.clear();
+            result.addAll(Collections.nCopies(keys.size(), null));
+        }
+        return result;
+    }
+
+    /**
+     * Set many values với TTL in one pipelined round trip
+     */
+    public void multiSet(Map<String, ?> values, Duration ttl) {
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    values.forEach((key, value) -> ops.opsForValue().set(key, value, ttl));
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            log.error("Error setting keys: {}", values.keySet(), e);
+            throw new RuntimeException("Redis multi set operation failed", e);
+        }
+    }
+
     /**
      * Get string value
      */
@@ -197,6 +266,23 @@ public class RedisService {
         }
     }
 
+    // Bitmap operations
+    public void setBits(String key, long[] offsets, Duration ttl) {
+        try {
+            byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (long offset : offsets) {
+                    connection.stringCommands().setBit(rawKey, offset, true);
+                }
+                connection.keyCommands().expire(rawKey, ttl.toSeconds());
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Error setting bits: {}", key, e);
+            throw new RuntimeException("Redis setbit operation failed", e);
+        }
+    }
+
     // Hash operations
     public void hSet(String key, String field, Object value) {
         try {
@@ -229,6 +315,137 @@ public class RedisService {
         }
     }
 
+    /**
+     * Write many hashes of string fields in one pipelined round trip, refreshing each key's TTL
+     */
+    public void hSetAll(Map<String, Map<String, String>> hashes, Duration ttl) {
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                hashes.forEach((key, fields) -> {
+                    byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+                    Map<byte[], byte[]> rawFields = new HashMap<>(fields.size() * 2);
+                    fields.forEach((field, value) -> rawFields.put(
+                            field.getBytes(StandardCharsets.UTF_8), value.getBytes(StandardCharsets.UTF_8)));
+                    connection.hashCommands().hMSet(rawKey, rawFields);
+                    connection.keyCommands().expire(rawKey, ttl.toSeconds());
+                });
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Error setting hashes: {}", hashes.keySet(), e);
+            throw new RuntimeException("Redis hash set operation failed", e);
+        }
+    }
+
+    /**
+     * HMGET on many hashes in one pipelined round trip; values line up with fields, null for misses
+     */
+    @SuppressWarnings("unchecked")
+    public List<List<String>> hMultiGet(List<String> keys, List<List<String>> fields) {
+        try {
+            List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i = 0; i < keys.size(); i++) {
+                    byte[][] rawFields = fields.get(i).stream()
+                            .map(field -> field.getBytes(StandardCharsets.UTF_8))
+                            .toArray(byte[][]::new);
+                    connection.hashCommands().hMGet(keys.get(i).getBytes(StandardCharsets.UTF_8), rawFields);
+                }
+                return null;
+            });
+            List<List<String>> values = new ArrayList<>(results.size());
+            for (Object result : results) {
+                values.add((List<String>) result);
+            }
+            return values;
+        } catch (Exception e) {
+            log.error("Error getting hashes: {}", keys, e);
+            List<List<String>> empty = new ArrayList<>(keys.size());
+            for (List<String> keyFields : fields) {
+                empty.add(Collections.nCopies(keyFields.size(), null));
+            }
+            return empty;
+        }
+    }
+
+    /**
+     * HINCRBY many hash fields in one pipelined round trip, only on hashes that have
+     * {@code guardField}; missing hashes are not created and TTLs are left alone
+     */
+    public void hIncrByAllIfPresent(Map<String, Map<String, Long>> increments, String guardField) {
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                increments.forEach((key, fields) -> {
+                    List<byte[]> keyAndArgs = new ArrayList<>(fields.size() * 2 + 2);
+                    keyAndArgs.add(key.getBytes(StandardCharsets.UTF_8));
+                    keyAndArgs.add(guardField.getBytes(StandardCharsets.UTF_8));
+                    fields.forEach((field, delta) -> {
+                        keyAndArgs.add(field.getBytes(StandardCharsets.UTF_8));
+                        keyAndArgs.add(Long.toString(delta).getBytes(StandardCharsets.UTF_8));
+                    });
+                    connection.scriptingCommands().eval(HINCRBY_IF_PRESENT, ReturnType.INTEGER, 1,
+                            keyAndArgs.toArray(byte[][]::new));
+                });
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Error incrementing hashes: {}", increments.keySet(), e);
+            throw new RuntimeException("Redis hash increment operation failed", e);
+        }
+    }
+
+    /**
+     * Write many hashes of string fields with a TTL in one pipelined round trip, skipping
+     * hashes that already have {@code guardField}
+     */
+    public void hSetAllIfAbsent(Map<String, Map<String, String>> hashes, String guardField, Duration ttl) {
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                hashes.forEach((key, fields) -> {
+                    List<byte[]> keyAndArgs = new ArrayList<>(fields.size() * 2 + 3);
+                    keyAndArgs.add(key.getBytes(StandardCharsets.UTF_8));
+                    keyAndArgs.add(guardField.getBytes(StandardCharsets.UTF_8));
+                    keyAndArgs.add(Long.toString(ttl.toMillis()).getBytes(StandardCharsets.UTF_8));
+                    fields.forEach((field, value) -> {
+                        keyAndArgs.add(field.getBytes(StandardCharsets.UTF_8));
+                        keyAndArgs.add(value.getBytes(StandardCharsets.UTF_8));
+                    });
+                    connection.scriptingCommands().eval(HSET_IF_ABSENT, ReturnType.INTEGER, 1,
+                            keyAndArgs.toArray(byte[][]::new));
+                });
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Error setting hashes: {}", hashes.keySet(), e);
+            throw new RuntimeException("Redis hash set operation failed", e);
+        }
+    }
+
+    /**
+     * HGETALL on many hashes of string fields in one pipelined round trip; results line up with keys
+     */
+    @SuppressWarnings("unchecked")
+    public List<Map<String, String>> hGetAllStrings(List<String> keys) {
+        try {
+            List<Object> results = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    keys.forEach(key -> ops.opsForHash().entries(key));
+                    return null;
+                }
+            });
+            List<Map<String, String>> hashes = new ArrayList<>(results.size());
+            for (Object result : results) {
+                hashes.add(result != null ? (Map<String, String>) result : Map.of());
+            }
+            return hashes;
+        } catch (Exception e) {
+            log.error("Error getting hashes: {}", keys, e);
+            throw new RuntimeException("Redis hash get operation failed", e);
+        }
+    }
+
     // List operations
     public long lPush(String key, Object... values) {
         try {
@@ -294,6 +511,206 @@ public class RedisService {
         }
     }
 
+    /**
+     * ZADD string members to many sorted sets in one pipelined round trip, then trim each to
+     * its highest-scored {@code maxSize} members and refresh its TTL
+     */
+    public void zAddCapped(Map<String, Map<String, Double>> entries, long maxSize, Duration ttl) {
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                entries.forEach((key, members) -> {
+                    byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+                    Set<Tuple> tuples = new HashSet<>(members.size() * 2);
+                    members.forEach((member, score) ->
+                            tuples.add(new DefaultTuple(member.getBytes(StandardCharsets.UTF_8), score)));
+                    connection.zSetCommands().zAdd(rawKey, tuples);
+                    connection.zSetCommands().zRemRange(rawKey, 0, -(maxSize + 1));
+                    connection.keyCommands().expire(rawKey, ttl.toSeconds());
+                });
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Error adding to sorted sets: {}", entries.keySet(), e);
+            throw new RuntimeException("Redis sorted set add operation failed", e);
+        }
+    }
+
+    /**
+     * ZREM string members from many sorted sets in one pipelined round trip
+     */
+    public void zRemAll(Map<String, Collection<String>> members) {
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                members.forEach((key, values) -> connection.zSetCommands().zRem(
+                        key.getBytes(StandardCharsets.UTF_8),
+                        values.stream().map(value -> value.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new)));
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Error removing from sorted sets: {}", members.keySet(), e);
+            throw new RuntimeException("Redis sorted set remove operation failed", e);
+        }
+    }
+
+    /**
+     * Highest-ranked string members after the position {@code (maxScore, maxMember)} from many
+     * sorted sets in one pipelined round trip, ranked by score then member, both descending as
+     * ZREVRANGE does; results line up with keys, best first. A null {@code maxMember} means
+     * strictly below {@code maxScore}. Members tied with the position are read in full, which
+     * stays small as long as ties are rare.
+     */
+    @SuppressWarnings("unchecked")
+    public List<List<ZSetOperations.TypedTuple<String>>> zRevRangeAfter(List<String> keys, double maxScore,
+                                                                       String maxMember, long count) {
+        try {
+            List<Object> results = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    double below = Math.nextDown(maxScore);
+                    keys.forEach(key -> {
+                        if (maxMember != null) {
+                            ops.opsForZSet().reverseRangeByScoreWithScores(key, maxScore, maxScore);
+                        }
+                        ops.opsForZSet().reverseRangeByScoreWithScores(key, Double.NEGATIVE_INFINITY, below, 0, count);
+                    });
+                    return null;
+                }
+            });
+            Comparator<ZSetOperations.TypedTuple<String>> order = Comparator
+                    .comparing(ZSetOperations.TypedTuple<String>::getScore, Comparator.reverseOrder())
+                    .thenComparing(ZSetOperations.TypedTuple<String>::getValue, Comparator.reverseOrder());
+            List<List<ZSetOperations.TypedTuple<String>>> ranges = new ArrayList<>(keys.size());
+            int perKey = maxMember != null ? 2 : 1;
+            for (int i = 0; i < keys.size(); i++) {
+                List<ZSetOperations.TypedTuple<String>> range = new ArrayList<>();
+                if (maxMember != null) {
+                    Set<ZSetOperations.TypedTuple<String>> ties =
+                            (Set<ZSetOperations.TypedTuple<String>>) results.get(i * perKey);
+                    if (ties != null) {
+                        ties.stream().filter(tuple -> tuple.getValue().compareTo(maxMember) < 0).forEach(range::add);
+                    }
+                }
+                Set<ZSetOperations.TypedTuple<String>> below =
+                        (Set<ZSetOperations.TypedTuple<String>>) results.get(i * perKey + perKey - 1);
+                if (below != null) {
+                    range.addAll(below);
+                }
+                range.sort(order);
+                ranges.add(range.size() > count ? new ArrayList<>(range.subList(0, (int) count)) : range);
+            }
+            return ranges;
+        } catch (Exception e) {
+            log.error("Error getting sorted set ranges: {}", keys, e);
+            throw new RuntimeException("Redis sorted set range operation failed", e);
+        }
+    }
+
+    /**
+     * SET if absent với TTL, e.g. to claim a job for one instance
+     */
+    public boolean setIfAbsent(String key, String value, Duration ttl) {
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(key, value, ttl));
+        } catch (Exception e) {
+            log.error("Error setting key if absent: {}", key, e);
+            return false;
+        }
+    }
+
+    /**
+     * SSCAN a set of strings, handing members to the consumer in batches of at most batchSize
+     */
+    public void sScan(String key, int batchSize, Consumer<List<String>> consumer) {
+        ScanOptions options = ScanOptions.scanOptions().count(batchSize).build();
+        try (Cursor<String> cursor = stringRedisTemplate.opsForSet().scan(key, options)) {
+            List<String> batch = new ArrayList<>(batchSize);
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() == batchSize) {
+                    consumer.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                consumer.accept(batch);
+            }
+        } catch (Exception e) {
+            log.error("Error scanning set: {}", key, e);
+            throw new RuntimeException("Redis set scan operation failed", e);
+        }
+    }
+
+    // HyperLogLog operations
+    public long pfAdd(String key, String... values) {
+        try {
+            Long result = stringRedisTemplate.opsForHyperLogLog().add(key, values);
+            return result != null ? result : 0;
+        } catch (Exception e) {
+            log.error("Error adding to hyperloglog: {}", key, e);
+            throw new RuntimeException("Redis hyperloglog add operation failed", e);
+        }
+    }
+
+    /**
+     * Estimated cardinality of the union of the given HyperLogLogs
+     */
+    public long pfCount(String... keys) {
+        try {
+            Long result = stringRedisTemplate.opsForHyperLogLog().size(keys);
+            return result != null ? result : 0;
+        } catch (Exception e) {
+            log.error("Error counting hyperloglogs: {}", Arrays.toString(keys), e);
+            return 0;
+        }
+    }
+
+    public void pfMerge(String destination, String... sources) {
+        try {
+            stringRedisTemplate.opsForHyperLogLog().union(destination, sources);
+        } catch (Exception e) {
+            log.error("Error merging hyperloglogs into: {}", destination, e);
+            throw new RuntimeException("Redis hyperloglog merge operation failed", e);
+        }
+    }
+
+    /**
+     * Estimated union cardinality of each group of HyperLogLogs in one pipelined round trip;
+     * results line up with groups
+     */
+    public List<Long> pfCountAll(List<List<String>> keyGroups) {
+        try {
+            List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (List<String> keys : keyGroups) {
+                    byte[][] rawKeys = keys.stream()
+                            .map(key -> key.getBytes(StandardCharsets.UTF_8))
+                            .toArray(byte[][]::new);
+                    connection.hyperLogLogCommands().pfCount(rawKeys);
+                }
+                return null;
+            });
+            List<Long> counts = new ArrayList<>(results.size());
+            for (Object result : results) {
+                counts.add(result != null ? (Long) result : 0L);
+            }
+            return counts;
+        } catch (Exception e) {
+            log.error("Error counting hyperloglogs", e);
+            return new ArrayList<>(Collections.nCopies(keyGroups.size(), 0L));
+        }
+    }
+
+    // Pub/Sub operations
+    public void publish(String channel, String message) {
+        try {
+            stringRedisTemplate.convertAndSend(channel, message);
+        } catch (Exception e) {
+            log.error("Error publishing to channel: {}", channel, e);
+            throw new RuntimeException("Redis publish operation failed", e);
+        }
+    }
+
     /**
      * Health check
      */
@@ -0,0 +1,104 @@
+package common.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed-size Bloom filter whose bit layout matches a Redis bitmap (offset 0 is the most
+ * significant bit of byte 0), so a filter written with SETBIT can be loaded with a plain GET.
+ * <p>
+ * Reads are lock-free; writes are serialised on the filter.
+ */
+public class BloomFilter {
+
+    private final long numBits;
+    private final int numHashes;
+    private final byte[] bits;
+
+    public BloomFilter(long numBits, int numHashes) {
+        if (numBits <= 0 || numBits > (long) Integer.MAX_VALUE * Byte.SIZE) {
+            throw new IllegalArgumentException("numBits out of range: " + numBits);
+        }
+        this.numBits = numBits;
+        this.numHashes = numHashes;
+        this.bits = new byte[(int) ((numBits + Byte.SIZE - 1) / Byte.SIZE)];
+    }
+
+    public static long optimalNumBits(long expectedInsertions, double falsePositiveRate) {
+        return (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    }
+
+    public static int optimalNumHashes(long expectedInsertions, long numBits) {
+        return Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * Bit offsets for a member, using double hashing over two 64-bit hashes of its UTF-8 bytes.
+     * Every writer and reader of a shared filter must use this same function.
+     */
+    public static long[] offsets(String member, long numBits, int numHashes) {
+        byte[] data = member.getBytes(StandardCharsets.UTF_8);
+        long h1 = mix(fnv1a(data, 0xcbf29ce484222325L));
+        long h2 = mix(fnv1a(data, 0x84222325cbf29ce4L)) | 1;
+        long[] result = new long[numHashes];
+        for (int i = 0; i < numHashes; i++) {
+            result[i] = Math.floorMod(h1 + i * h2, numBits);
+        }
+        return result;
+    }
+
+    public long[] offsets(String member) {
+        return offsets(member, numBits, numHashes);
+    }
+
+    public synchronized void add(String member) {
+        for (long offset : offsets(member)) {
+            bits[(int) (offset >>> 3)] |= (byte) (0x80 >>> (offset & 7));
+        }
+    }
+
+    public boolean mightContain(String member) {
+        for (long offset : offsets(member)) {
+            if ((bits[(int) (offset >>> 3)] & (0x80 >>> (offset & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * OR a Redis bitmap into this filter. The bitmap may be shorter than the filter, since
+     * Redis only grows a string up to its highest set bit.
+     */
+    public synchronized void merge(byte[] bitmap) {
+        int length = Math.min(bitmap.length, bits.length);
+        for (int i = 0; i < length; i++) {
+            bits[i] |= bitmap[i];
+        }
+    }
+
+    public long getNumBits() {
+        return numBits;
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    private static long fnv1a(byte[] data, long seed) {
+        long hash = seed;
+        for (byte b : data) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
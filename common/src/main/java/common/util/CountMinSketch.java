@@ -0,0 +1,96 @@
+package common.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Count-Min Sketch over int counters: {@code depth} rows of {@code width} counters, one per
+ * row hashed with {@link BloomFilter#offsets}. Estimates never undercount, and overcount by
+ * at most {@code e / width} of the total with probability {@code 1 - e^-depth}.
+ * <p>
+ * Plain (not conservative) updates, so sketches of the same shape can be added and subtracted,
+ * which is what lets a sliding window drop its oldest slice. Not thread-safe.
+ */
+public class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final int[] counters;
+    private long total;
+
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("width and depth must be positive");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counters = new int[width * depth];
+    }
+
+    /**
+     * Adds {@code count} occurrences and returns the item's new estimate.
+     */
+    public long add(String item, int count) {
+        long[] offsets = BloomFilter.offsets(item, width, depth);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = row * width + (int) offsets[row];
+            counters[index] += count;
+            estimate = Math.min(estimate, counters[index]);
+        }
+        total += count;
+        return estimate;
+    }
+
+    public long estimate(String item) {
+        long[] offsets = BloomFilter.offsets(item, width, depth);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * width + (int) offsets[row]]);
+        }
+        return estimate;
+    }
+
+    public void merge(CountMinSketch other) {
+        checkShape(other);
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        total += other.total;
+    }
+
+    /**
+     * Removes a sketch previously merged into this one.
+     */
+    public void subtract(CountMinSketch other) {
+        checkShape(other);
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] -= other.counters[i];
+        }
+        total -= other.total;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(16 + counters.length * Integer.BYTES);
+        buffer.putInt(width).putInt(depth).putLong(total);
+        buffer.asIntBuffer().put(counters);
+        return buffer.array();
+    }
+
+    public static CountMinSketch fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        CountMinSketch sketch = new CountMinSketch(buffer.getInt(), buffer.getInt());
+        sketch.total = buffer.getLong();
+        buffer.asIntBuffer().get(sketch.counters);
+        return sketch;
+    }
+
+    private void checkShape(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("Sketch shapes differ");
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package common.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter with 4-bit counters instead of bits, so members can be removed again.
+ * Sixteen counters are packed per long and updated with CAS, making every operation
+ * lock-free. A counter that reaches 15 sticks there, since its true count is unknown.
+ */
+public class CountingBloomFilter {
+
+    private static final int COUNTERS_PER_WORD = 16;
+    private static final long MAX_COUNT = 0xF;
+
+    private final long numCounters;
+    private final int numHashes;
+    private final AtomicLongArray words;
+
+    public CountingBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        this.numCounters = BloomFilter.optimalNumBits(expectedInsertions, falsePositiveRate);
+        this.numHashes = BloomFilter.optimalNumHashes(expectedInsertions, numCounters);
+        this.words = new AtomicLongArray(Math.toIntExact((numCounters + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD));
+    }
+
+    public void add(String member) {
+        for (long offset : BloomFilter.offsets(member, numCounters, numHashes)) {
+            update(offset, 1);
+        }
+    }
+
+    public void remove(String member) {
+        for (long offset : BloomFilter.offsets(member, numCounters, numHashes)) {
+            update(offset, -1);
+        }
+    }
+
+    public boolean mightContain(String member) {
+        for (long offset : BloomFilter.offsets(member, numCounters, numHashes)) {
+            if (count(words.get(index(offset)), offset) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void update(long offset, int delta) {
+        int index = index(offset);
+        int shift = shift(offset);
+        while (true) {
+            long word = words.get(index);
+            long count = (word >>> shift) & MAX_COUNT;
+            if (count == MAX_COUNT || (delta < 0 && count == 0)) {
+                return;
+            }
+            long updated = (word & ~(MAX_COUNT << shift)) | ((count + delta) << shift);
+            if (words.compareAndSet(index, word, updated)) {
+                return;
+            }
+        }
+    }
+
+    private static long count(long word, long offset) {
+        return (word >>> shift(offset)) & MAX_COUNT;
+    }
+
+    private static int index(long offset) {
+        return (int) (offset / COUNTERS_PER_WORD);
+    }
+
+    private static int shift(long offset) {
+        return (int) (offset % COUNTERS_PER_WORD) * 4;
+    }
+}
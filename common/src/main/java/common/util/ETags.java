@@ -0,0 +1,26 @@
+package common.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Strong validators for JSON responses, derived from the bytes the client will receive.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * MD5 of the body as serialized by the given mapper, which should be the one the message
+     * converters use so the validator tracks exactly what is sent.
+     */
+    public static String of(ObjectMapper objectMapper, Object body) {
+        try {
+            return DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response body is not serializable: " + body.getClass().getName(), e);
+        }
+    }
+}
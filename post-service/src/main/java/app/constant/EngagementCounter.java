@@ -0,0 +1,23 @@
+package app.constant;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum EngagementCounter {
+    LIKES("likes_count", "likes"),
+    COMMENTS("comments_count", "comments"),
+    SHARES("shares_count", "shares"),
+    VIEWS("views_count", "views");
+
+    /**
+     * Column in {@code post_metrics}.
+     */
+    private final String column;
+
+    /**
+     * Field in the Redis metrics hash.
+     */
+    private final String field;
+}
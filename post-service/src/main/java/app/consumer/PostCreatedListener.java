@@ -0,0 +1,24 @@
+package app.consumer;
+
+import app.service.FeedService;
+import common.event.PostCreatedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class PostCreatedListener {
+
+    private final FeedService feedService;
+
+    /**
+     * One shared group, so each post is fanned out once; the offset is committed only after
+     * the fan-out, and ZADD is idempotent, so a redelivery just rewrites the same entries.
+     */
+    @KafkaListener(topics = "post.created", groupId = "post-service.feed-fanout",
+            concurrency = "${app.feed.fanout-concurrency:3}")
+    public void handlePostCreated(PostCreatedEvent event) {
+        feedService.fanOut(event);
+    }
+}
@@ -0,0 +1,30 @@
+package app.consumer;
+
+import app.service.FeedService;
+import app.service.PostMetricsService;
+import app.service.PostViewService;
+import common.event.PostDeletedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class PostDeletedListener {
+
+    private final PostMetricsService postMetricsService;
+    private final PostViewService postViewService;
+    private final FeedService feedService;
+
+    /**
+     * A group per instance, since every instance may hold unflushed counter deltas for the
+     * post. The Redis deletes are repeated by each instance, which is harmless, as is a
+     * restart replaying deletes since the group's last commit.
+     */
+    @KafkaListener(topics = "post.deleted", groupId = "post-service.cleanup.${app.instance-id}")
+    public void handlePostDeleted(PostDeletedEvent event) {
+        postMetricsService.discard(event.getPostId());
+        postViewService.discard(event.getPostId());
+        feedService.remove(event);
+    }
+}
@@ -0,0 +1,49 @@
+package app.consumer;
+
+import app.service.PostSearchService;
+import common.event.PostCreatedEvent;
+import common.event.PostDeletedEvent;
+import common.event.PostUpdatedEvent;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class PostSearchListener implements ConsumerSeekAware {
+
+    private final PostSearchService postSearchService;
+
+    /**
+     * A group per instance, since every instance keeps its own index. The group id is stable
+     * per host, so restarts reuse it. Each event only names the post to re-read, so events
+     * arriving out of order across topics, or replayed, do no harm.
+     */
+    @KafkaListener(topics = "post.created", groupId = "post-service.search.${app.instance-id}")
+    public void handlePostCreated(PostCreatedEvent event) {
+        postSearchService.reindex(event.getPostId());
+    }
+
+    @KafkaListener(topics = "post.updated", groupId = "post-service.search.${app.instance-id}")
+    public void handlePostUpdated(PostUpdatedEvent event) {
+        postSearchService.reindex(event.getPostId());
+    }
+
+    @KafkaListener(topics = "post.deleted", groupId = "post-service.search.${app.instance-id}")
+    public void handlePostDeleted(PostDeletedEvent event) {
+        postSearchService.reindex(event.getPostId());
+    }
+
+    /**
+     * Committed offsets are ignored: the startup catch-up only covers changes it read from the
+     * table, so the topics are replayed from before it started, whatever the group last read.
+     */
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToTimestamp(assignments.keySet(), postSearchService.getReplayFrom());
+    }
+}
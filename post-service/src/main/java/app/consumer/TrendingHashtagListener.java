@@ -0,0 +1,26 @@
+package app.consumer;
+
+import app.service.TrendingService;
+import common.constant.Visibility;
+import common.event.PostCreatedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class TrendingHashtagListener {
+
+    private final TrendingService trendingService;
+
+    /**
+     * One shared group: each instance counts its share of partitions, and the per-instance
+     * sketches are summed through Redis.
+     */
+    @KafkaListener(topics = "post.created", groupId = "post-service.trending")
+    public void handlePostCreated(PostCreatedEvent event) {
+        if (event.getVisibility() == Visibility.PUBLIC && event.getHashtags() != null) {
+            trendingService.record(event.getHashtags());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package app.controller;
+
+import app.dto.PostMediaDto;
+import app.service.MediaService;
+import common.annotation.CurrentUserId;
+import common.dto.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.UUID;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/posts/media")
+public class MediaController {
+
+    private final MediaService mediaService;
+
+    /**
+     * Raw (non-multipart) upload; the body is the file itself and is streamed to storage.
+     */
+    @PostMapping
+    public ApiResponse<PostMediaDto> upload(@CurrentUserId UUID userId, HttpServletRequest request) throws IOException {
+        return ApiResponse.success(mediaService.upload(
+                userId,
+                request.getContentType(),
+                request.getContentLengthLong(),
+                request.getInputStream()));
+    }
+
+    /**
+     * Streams a stored file; a file never changes once uploaded, so it may be cached for good.
+     * Range requests are answered from the file without loading it.
+     */
+    @GetMapping("/{fileName}")
+    public ResponseEntity<Resource> download(@PathVariable String fileName) {
+        MediaService.StoredMedia media = mediaService.load(fileName);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, media.contentType() != null
+                        ? media.contentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE)
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable())
+                .body(new FileSystemResource(media.path()));
+    }
+}
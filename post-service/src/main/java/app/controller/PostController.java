@@ -1,22 +1,171 @@
 package app.controller;
 
-import app.entity.Post;
+import app.dto.CreatePostRequestDto;
+import app.dto.PostDto;
+import app.dto.PostMetricsDto;
+import app.dto.PostPageDto;
+import app.dto.PostViewsDto;
+import app.dto.TrendingHashtagDto;
+import app.dto.UpdatePostRequestDto;
+import app.service.FeedService;
+import app.service.PostMetricsService;
+import app.service.PostSearchService;
+import app.service.PostService;
+import app.service.PostViewService;
+import app.service.TrendingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import common.annotation.CurrentUserId;
-import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import common.dto.ApiResponse;
+import common.dto.IdBatchRequestDto;
+import common.util.ETags;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
+@RequiredArgsConstructor
 @RequestMapping("/posts")
 public class PostController {
 
+    private final PostService postService;
+    private final FeedService feedService;
+    private final PostMetricsService postMetricsService;
+    private final PostViewService postViewService;
+    private final TrendingService trendingService;
+    private final PostSearchService postSearchService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.http-cache.post-max-age:30s}")
+    private Duration postMaxAge;
+
+    @PostMapping
+    public ApiResponse<PostDto> createPost(@CurrentUserId UUID userId,
+                                           @Valid @RequestBody CreatePostRequestDto createPostRequestDto) {
+        return ApiResponse.success(postService.createPost(userId, createPostRequestDto));
+    }
+
+    /**
+     * The caller's own timeline, including non-public posts.
+     */
     @GetMapping
-    public String getPosts(@CurrentUserId UUID userId) {
-        System.out.println(userId.toString());
-        return "Testing...";
+    public ApiResponse<PostPageDto> getPosts(@CurrentUserId UUID userId,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "20") int limit) {
+        return ApiResponse.success(postService.getTimeline(userId, userId, cursor, limit));
+    }
+
+    /**
+     * Home feed: posts by accounts the caller follows, newest first.
+     */
+    @GetMapping("/feed")
+    public ApiResponse<PostPageDto> getFeed(@CurrentUserId UUID userId,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "20") int limit) {
+        return ApiResponse.success(feedService.getFeed(userId, cursor, limit));
+    }
+
+    /**
+     * Posts containing every word of {@code q}, newest first.
+     */
+    @GetMapping("/search")
+    public ApiResponse<PostPageDto> search(@CurrentUserId UUID userId,
+                                           @RequestParam("q") String query,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "20") int limit) {
+        return ApiResponse.success(postSearchService.search(userId, query, cursor, limit));
+    }
+
+    /**
+     * Most used hashtags over the trending window, served from a precomputed snapshot.
+     */
+    @GetMapping("/trending/hashtags")
+    public ApiResponse<List<TrendingHashtagDto>> getTrendingHashtags(@RequestParam(defaultValue = "10") int limit) {
+        return ApiResponse.success(trendingService.getTrendingHashtags(limit));
+    }
+
+    /**
+     * Cacheable per viewer by the gateway until the post is edited or deleted. A post served
+     * without its author, because user-service did not answer in time, is not stored.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<PostDto>> getPost(@CurrentUserId UUID userId, @PathVariable UUID id) {
+        PostDto post = postService.getPost(userId, id);
+        ApiResponse<PostDto> body = ApiResponse.success(post);
+        if (post.getAuthor() == null) {
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    .body(body);
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(postMaxAge).cachePrivate())
+                // The envelope carries a timestamp, so only the post itself is hashed
+                .eTag(ETags.of(objectMapper, post))
+                .body(body);
+    }
+
+    /**
+     * An author's timeline, newest first; pass the returned {@code nextCursor} for the next page.
+     */
+    @GetMapping("/users/{authorId}")
+    public ApiResponse<PostPageDto> getTimeline(@CurrentUserId UUID userId,
+                                                @PathVariable UUID authorId,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "20") int limit) {
+        return ApiResponse.success(postService.getTimeline(userId, authorId, cursor, limit));
+    }
+
+    @PutMapping("/{id}")
+    public ApiResponse<PostDto> updatePost(@CurrentUserId UUID userId,
+                                           @PathVariable UUID id,
+                                           @Valid @RequestBody UpdatePostRequestDto updatePostRequestDto) {
+        return ApiResponse.success(postService.updatePost(userId, id, updatePostRequestDto));
+    }
+
+    @DeleteMapping("/{id}")
+    public ApiResponse<String> deletePost(@CurrentUserId UUID userId, @PathVariable UUID id) {
+        return ApiResponse.success(postService.deletePost(userId, id));
+    }
+
+    @GetMapping("/{id}/metrics")
+    public ApiResponse<PostMetricsDto> getMetrics(@PathVariable UUID id) {
+        return ApiResponse.success(postMetricsService.getMetrics(id));
+    }
+
+    /**
+     * Metrics in request order; posts without any engagement count zero.
+     */
+    @PostMapping("/metrics")
+    public ApiResponse<List<PostMetricsDto>> getMetrics(@Valid @RequestBody IdBatchRequestDto idBatchRequestDto) {
+        Map<UUID, PostMetricsDto> metrics = postMetricsService.getMetrics(idBatchRequestDto.getIds());
+        return ApiResponse.success(idBatchRequestDto.getIds().stream().distinct().map(metrics::get).toList());
+    }
+
+    @PostMapping("/{id}/views")
+    public ApiResponse<String> recordView(@CurrentUserId UUID userId, @PathVariable UUID id) {
+        postViewService.recordViews(userId, List.of(id));
+        return ApiResponse.success("OK");
+    }
+
+    /**
+     * Clients buffer the posts shown to the user and report them in one call.
+     */
+    @PostMapping("/views")
+    public ApiResponse<String> recordViews(@CurrentUserId UUID userId,
+                                           @Valid @RequestBody IdBatchRequestDto idBatchRequestDto) {
+        postViewService.recordViews(userId, idBatchRequestDto.getIds());
+        return ApiResponse.success("OK");
+    }
+
+    @GetMapping("/{id}/views")
+    public ApiResponse<PostViewsDto> getViews(@PathVariable UUID id) {
+        return ApiResponse.success(postViewService.getViews(id));
     }
 }
@@ -0,0 +1,25 @@
+package app.dto;
+
+import common.constant.Visibility;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class CreatePostRequestDto {
+
+    @NotBlank(message = "Content is required")
+    @Size(max = 10000, message = "Content is too long")
+    private String content;
+
+    private Visibility visibility;
+
+    /**
+     * Media previously uploaded by the author through {@code POST /posts/media}.
+     */
+    @Size(max = 20, message = "At most 20 media per post")
+    private List<UUID> mediaIds;
+}
@@ -0,0 +1,30 @@
+package app.dto;
+
+import common.constant.Visibility;
+import common.dto.UserProfileDto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostDto {
+    private UUID id;
+    private UUID userId;
+    private UserProfileDto author;
+    private String content;
+    private List<PostMediaDto> mediaList;
+    private List<String> hashtags;
+    private List<String> mentions;
+    private Boolean isEdited;
+    private Visibility visibility;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
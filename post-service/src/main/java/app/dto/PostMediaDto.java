@@ -0,0 +1,21 @@
+package app.dto;
+
+import common.constant.MediaType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostMediaDto {
+    private UUID id;
+    private MediaType mediaType;
+    private String url;
+    private String thumbnailUrl;
+    private Long fileSize;
+}
@@ -0,0 +1,14 @@
+package app.dto;
+
+import common.constant.MediaType;
+
+import java.util.UUID;
+
+public interface PostMediaView {
+    UUID getPostId();
+    UUID getId();
+    MediaType getMediaType();
+    String getUrl();
+    String getThumbnailUrl();
+    Long getFileSize();
+}
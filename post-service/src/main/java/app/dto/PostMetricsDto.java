@@ -0,0 +1,20 @@
+package app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostMetricsDto {
+    private UUID postId;
+    private Long likesCount;
+    private Long commentsCount;
+    private Long sharesCount;
+    private Long viewsCount;
+}
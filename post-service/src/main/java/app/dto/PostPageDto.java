@@ -0,0 +1,20 @@
+package app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostPageDto {
+    private List<PostDto> posts;
+    /**
+     * Pass back as {@code cursor} for the next page; null on the last page.
+     */
+    private String nextCursor;
+}
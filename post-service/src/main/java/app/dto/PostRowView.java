@@ -0,0 +1,19 @@
+package app.dto;
+
+import common.constant.Visibility;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Scalar columns of a post, without its collections.
+ */
+public interface PostRowView {
+    UUID getId();
+    UUID getUserId();
+    String getContent();
+    Boolean getIsEdited();
+    Visibility getVisibility();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+}
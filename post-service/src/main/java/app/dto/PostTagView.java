@@ -0,0 +1,11 @@
+package app.dto;
+
+import java.util.UUID;
+
+/**
+ * One hashtag or mention of a post.
+ */
+public interface PostTagView {
+    UUID getPostId();
+    String getTag();
+}
@@ -0,0 +1,21 @@
+package app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Unique viewer estimates; HyperLogLog counts are within about 1% of the true value.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostViewsDto {
+    private UUID postId;
+    private Long uniqueViewers;
+    private Long uniqueViewersToday;
+}
@@ -0,0 +1,18 @@
+package app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingHashtagDto {
+    private String hashtag;
+    /**
+     * Estimated posts using the hashtag in the window; may overcount slightly, never under.
+     */
+    private Long count;
+}
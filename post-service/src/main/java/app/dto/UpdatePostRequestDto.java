@@ -0,0 +1,19 @@
+package app.dto;
+
+import common.constant.Visibility;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class UpdatePostRequestDto {
+
+    @NotBlank(message = "Content is required")
+    @Size(max = 10000, message = "Content is too long")
+    private String content;
+
+    /**
+     * Unchanged when omitted.
+     */
+    private Visibility visibility;
+}
@@ -1,6 +1,7 @@
 package app.entity;
 
 import common.constant.Visibility;
+import common.id.UuidV7;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -19,11 +20,16 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+        // Backs the author timeline keyset: WHERE user_id = ? AND (created_at, id) < (?, ?)
+        @Index(name = "idx_posts_user_created_id", columnList = "user_id, created_at DESC, id DESC"),
+        // Lets a restarted search index catch up on recent changes only
+        @Index(name = "idx_posts_updated_at", columnList = "updated_at")
+})
 public class Post {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(nullable = false)
@@ -38,13 +44,15 @@ public class Post {
 
     @Builder.Default
     @ElementCollection
-    @CollectionTable(name = "post_hashtags", joinColumns = @JoinColumn(name = "post_id"))
+    @CollectionTable(name = "post_hashtags", joinColumns = @JoinColumn(name = "post_id"),
+            indexes = @Index(name = "idx_post_hashtags_post_id", columnList = "post_id"))
     @Column(name = "hashtag")
     private List<String> hashtags = new ArrayList<>();
 
     @Builder.Default
     @ElementCollection
-    @CollectionTable(name = "post_mentions", joinColumns = @JoinColumn(name = "post_id"))
+    @CollectionTable(name = "post_mentions", joinColumns = @JoinColumn(name = "post_id"),
+            indexes = @Index(name = "idx_post_mentions_post_id", columnList = "post_id"))
     @Column(name = "mention")
     private List<String> mentions = new ArrayList<>();
 
@@ -1,6 +1,7 @@
 package app.entity;
 
 import common.constant.MediaType;
+import common.id.UuidV7;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,17 +17,24 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "post_media")
+@Table(name = "post_media", indexes = {
+        @Index(name = "idx_post_media_post_id", columnList = "post_id"),
+        // Downloads look the file up by its public URL
+        @Index(name = "idx_post_media_url", columnList = "url", unique = true)
+})
 public class PostMedia {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "post_id")
     private Post post;
 
+    @Column(nullable = false)
+    private UUID uploaderId;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     private MediaType mediaType;
@@ -36,6 +44,9 @@ public class PostMedia {
 
     private String thumbnailUrl;
 
+    @Column(length = 100)
+    private String contentType;
+
     private Long fileSize;
 
     @CreationTimestamp
@@ -0,0 +1,33 @@
+package app.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Marks a deleted post for a while, so search indexes that were down at the time can drop it
+ * when they catch up.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "post_tombstones", indexes = @Index(name = "idx_post_tombstones_deleted_at", columnList = "deleted_at"))
+public class PostTombstone {
+
+    @Id
+    private UUID postId;
+
+    @CreationTimestamp
+    private LocalDateTime deletedAt;
+}
@@ -0,0 +1,34 @@
+package app.repository;
+
+import app.dto.PostMediaView;
+import app.entity.Post;
+import app.entity.PostMedia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface PostMediaRepository extends JpaRepository<PostMedia, UUID> {
+
+    @Query("SELECT m.post.id AS postId, m.id AS id, m.mediaType AS mediaType, m.url AS url, " +
+            "m.thumbnailUrl AS thumbnailUrl, m.fileSize AS fileSize FROM PostMedia m " +
+            "WHERE m.post.id IN :postIds ORDER BY m.createdAt, m.id")
+    List<PostMediaView> findViewsByPostIdIn(@Param("postIds") Collection<UUID> postIds);
+
+    Optional<PostMedia> findByUrl(String url);
+
+    /**
+     * Claims uploads for a post; only the uploader's media that is not yet attached is taken.
+     */
+    @Modifying
+    @Query("UPDATE PostMedia m SET m.post = :post " +
+            "WHERE m.id IN :ids AND m.uploaderId = :uploaderId AND m.post IS NULL")
+    int attachToPost(@Param("post") Post post, @Param("ids") Collection<UUID> ids, @Param("uploaderId") UUID uploaderId);
+}
@@ -0,0 +1,11 @@
+package app.repository;
+
+import app.entity.PostMetrics;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface PostMetricsRepository extends JpaRepository<PostMetrics, UUID> {
+}
@@ -0,0 +1,69 @@
+package app.repository;
+
+import app.dto.PostRowView;
+import app.dto.PostTagView;
+import app.entity.Post;
+import common.constant.Visibility;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@Repository
+public interface PostRepository extends JpaRepository<Post, UUID> {
+
+    String ROW_COLUMNS = "SELECT p.id AS id, p.userId AS userId, p.content AS content, p.isEdited AS isEdited, " +
+            "p.visibility AS visibility, p.createdAt AS createdAt, p.updatedAt AS updatedAt FROM Post p ";
+
+    @Query(ROW_COLUMNS + "WHERE p.id IN :ids")
+    List<PostRowView> findRowsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT p.id FROM Post p WHERE p.id IN :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * First page of an author's timeline, newest first.
+     */
+    @Query(ROW_COLUMNS + "WHERE p.userId = :userId AND p.visibility IN :visibilities " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostRowView> findTimeline(@Param("userId") UUID userId,
+                                   @Param("visibilities") Collection<Visibility> visibilities,
+                                   Pageable pageable);
+
+    /**
+     * Page after the last seen {@code (createdAt, id)}; seeks the (user_id, created_at, id)
+     * index instead of skipping rows, so the cost does not grow with page depth.
+     */
+    @Query(ROW_COLUMNS + "WHERE p.userId = :userId AND p.visibility IN :visibilities " +
+            "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostRowView> findTimelineAfter(@Param("userId") UUID userId,
+                                        @Param("visibilities") Collection<Visibility> visibilities,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") UUID id,
+                                        Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(ROW_COLUMNS)
+    Stream<PostRowView> streamAllRows();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(ROW_COLUMNS + "WHERE p.updatedAt >= :since")
+    Stream<PostRowView> streamRowsUpdatedSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT p.id AS postId, h AS tag FROM Post p JOIN p.hashtags h WHERE p.id IN :postIds")
+    List<PostTagView> findHashtagsByPostIdIn(@Param("postIds") Collection<UUID> postIds);
+
+    @Query("SELECT p.id AS postId, m AS tag FROM Post p JOIN p.mentions m WHERE p.id IN :postIds")
+    List<PostTagView> findMentionsByPostIdIn(@Param("postIds") Collection<UUID> postIds);
+}
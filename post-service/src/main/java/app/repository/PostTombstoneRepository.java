@@ -0,0 +1,23 @@
+package app.repository;
+
+import app.entity.PostTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PostTombstoneRepository extends JpaRepository<PostTombstone, UUID> {
+
+    @Query("SELECT t.postId FROM PostTombstone t WHERE t.deletedAt >= :since")
+    List<UUID> findPostIdsDeletedSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM PostTombstone t WHERE t.deletedAt < :before")
+    int deleteDeletedBefore(@Param("before") LocalDateTime before);
+}
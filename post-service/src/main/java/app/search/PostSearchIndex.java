@@ -0,0 +1,416 @@
+package app.search;
+
+import app.dto.PostRowView;
+import common.constant.Visibility;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Local Lucene index over post content, memory-mapped from disk. Every instance keeps its own
+ * copy. Writes are visible to searches after the next {@link #refresh()} (near real time) and
+ * durable after the next {@link #commit()}.
+ * <p>
+ * Only content is analysed; author and visibility are exact-match fields used to filter, and
+ * results are ordered newest first on doc values, so a cursor is just the last hit's
+ * {@code (createdAt, id)}.
+ * <p>
+ * Each commit records the newest post change indexed, so a restarted instance only has to
+ * catch up from there. A rebuild that fails is rolled back to the last commit. Live writes
+ * during a rebuild are remembered and win over the rebuild's older row snapshot.
+ */
+@Slf4j
+@Component
+public class PostSearchIndex {
+
+    private static final String ID = "id";
+    private static final String USER_ID = "userId";
+    private static final String VISIBILITY = "visibility";
+    private static final String CONTENT = "content";
+    private static final String CREATED_AT = "createdAt";
+    private static final String WATERMARK = "watermark";
+    private static final int MAX_QUERY_TERMS = 10;
+    private static final Sort NEWEST_FIRST = new Sort(
+            new SortField(CREATED_AT, SortField.Type.LONG, true),
+            new SortField(ID, SortField.Type.STRING, true));
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final Directory directory;
+    private final DataSize ramBuffer;
+    private volatile IndexWriter writer;
+    private volatile SearcherManager searcherManager;
+    private final AtomicLong watermark = new AtomicLong();
+    // Live writes made during the running rebuild, or null when none is running
+    private final AtomicReference<Map<UUID, LiveWrite>> rebuilding = new AtomicReference<>();
+
+    public record Hit(UUID postId, long createdAt) {
+    }
+
+    /**
+     * A live write made during a rebuild; a null document is a delete.
+     */
+    private record LiveWrite(Document document, long changedAt) {
+    }
+
+    public PostSearchIndex(@Value("${app.post-search.index-dir:post-index}") Path indexDir,
+                           @Value("${app.post-search.ram-buffer:64MB}") DataSize ramBuffer) throws IOException {
+        Files.createDirectories(indexDir);
+        this.directory = new MMapDirectory(indexDir);
+        this.ramBuffer = ramBuffer;
+        open();
+    }
+
+    /**
+     * Opens the writer on the last commit and restores that commit's watermark.
+     */
+    private void open() throws IOException {
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
+                // Commits go through commit(), which never persists a half-done rebuild
+                .setCommitOnClose(false)
+                .setRAMBufferSizeMB(ramBuffer.toMegabytes());
+        IndexWriter opened = new IndexWriter(directory, config);
+        this.searcherManager = new SearcherManager(opened, null);
+        this.writer = opened;
+
+        watermark.set(0);
+        Iterable<Map.Entry<String, String>> commitData = opened.getLiveCommitData();
+        if (commitData != null) {
+            for (Map.Entry<String, String> entry : commitData) {
+                if (WATERMARK.equals(entry.getKey())) {
+                    watermark.set(Long.parseLong(entry.getValue()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds or replaces a post; {@code changedAt} advances the catch-up watermark.
+     */
+    public void upsert(UUID postId, UUID userId, Visibility visibility, String content,
+                       LocalDateTime createdAt, LocalDateTime changedAt) {
+        Document document = document(postId, userId, visibility, content, createdAt);
+        Map<UUID, LiveWrite> liveWrites = rebuilding.get();
+        if (liveWrites == null) {
+            write(postId, document);
+        } else {
+            // A row without a change time cannot be ordered, so it is taken to be the newest
+            LiveWrite current = new LiveWrite(document, changedAt != null ? toMillis(changedAt) : Long.MAX_VALUE);
+            // Written under the entry's lock, so the rebuild cannot interleave its own copy
+            liveWrites.compute(postId, (id, previous) -> {
+                write(id, document);
+                return previous == null || current.changedAt() >= previous.changedAt() ? current : previous;
+            });
+        }
+        advance(changedAt);
+    }
+
+    public void delete(UUID postId) {
+        Map<UUID, LiveWrite> liveWrites = rebuilding.get();
+        if (liveWrites == null) {
+            erase(postId);
+        } else {
+            // Post ids are never reused, so a delete outranks any write
+            liveWrites.compute(postId, (id, previous) -> {
+                erase(id);
+                return new LiveWrite(null, Long.MAX_VALUE);
+            });
+        }
+    }
+
+    /**
+     * Replaces the whole index with the given rows; searches keep seeing the old index until
+     * the rebuild commits. A row is skipped if a live write since the rebuild started is at
+     * least as new, and live writes are applied again once the rows are in, since
+     * {@code deleteAll} may have dropped them. If the rows fail to stream, everything since
+     * the last commit is rolled back, including live updates made meanwhile, and the watermark
+     * with it.
+     */
+    public long rebuild(Stream<PostRowView> rows) {
+        Map<UUID, LiveWrite> liveWrites = new ConcurrentHashMap<>();
+        if (!rebuilding.compareAndSet(null, liveWrites)) {
+            throw new IllegalStateException("Post search index rebuild already running");
+        }
+        try {
+            long count;
+            try {
+                writer.deleteAll();
+                watermark.set(0);
+                count = indexSnapshot(rows, liveWrites);
+                for (UUID postId : liveWrites.keySet()) {
+                    liveWrites.computeIfPresent(postId, (id, live) -> {
+                        if (live.document() == null) {
+                            erase(id);
+                        } else {
+                            write(id, live.document());
+                        }
+                        return live;
+                    });
+                }
+                writeCommit();
+            } catch (IOException | RuntimeException e) {
+                rollback();
+                throw e;
+            }
+            searcherManager.maybeRefreshBlocking();
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            rebuilding.set(null);
+        }
+    }
+
+    private long indexSnapshot(Stream<PostRowView> rows, Map<UUID, LiveWrite> liveWrites) {
+        long[] count = {0};
+        rows.forEach(row -> liveWrites.compute(row.getId(), (id, live) -> {
+            if (live == null || row.getUpdatedAt() == null || live.changedAt() < toMillis(row.getUpdatedAt())) {
+                write(id, document(id, row.getUserId(), row.getVisibility(), row.getContent(), row.getCreatedAt()));
+                advance(row.getUpdatedAt());
+                count[0]++;
+            }
+            return live;
+        }));
+        return count[0];
+    }
+
+    private void write(UUID postId, Document document) {
+        try {
+            writer.updateDocument(new Term(ID, postId.toString()), document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void erase(UUID postId) {
+        try {
+            writer.deleteDocuments(new Term(ID, postId.toString()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Rolling back closes the writer, so a new one is opened on the last commit.
+     */
+    private void rollback() {
+        SearcherManager previous = searcherManager;
+        try {
+            writer.rollback();
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            try {
+                previous.close();
+            } catch (IOException e) {
+                log.warn("Could not close post searcher manager: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Upserts the given rows, e.g. those changed since {@link #getWatermark()}.
+     */
+    public long index(Stream<PostRowView> rows) {
+        long[] count = {0};
+        rows.forEach(row -> {
+            upsert(row.getId(), row.getUserId(), row.getVisibility(), row.getContent(),
+                    row.getCreatedAt(), row.getUpdatedAt());
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    public void refresh() {
+        if (rebuilding.get() != null) {
+            return;
+        }
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Skipped during a rebuild, which would otherwise be committed half done.
+     */
+    public void commit() {
+        if (rebuilding.get() == null) {
+            writeCommit();
+        }
+    }
+
+    private void writeCommit() {
+        try {
+            writer.setLiveCommitData(Map.of(WATERMARK, Long.toString(watermark.get())).entrySet());
+            writer.commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Newest post change indexed as of the last commit or write, or null for an empty index.
+     */
+    public LocalDateTime getWatermark() {
+        long millis = watermark.get();
+        return millis > 0 ? fromMillis(millis) : null;
+    }
+
+    public long size() {
+        return writer.getDocStats().numDocs;
+    }
+
+    /**
+     * Posts containing every term of the query, visible to the viewer, newest first, starting
+     * after the given position. Returns up to {@code limit} hits.
+     */
+    public List<Hit> search(UUID viewerId, String text, Hit after, int limit) {
+        Set<String> terms = analyze(text);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String term : terms) {
+            query.add(new TermQuery(new Term(CONTENT, term)), BooleanClause.Occur.MUST);
+        }
+        query.add(new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(VISIBILITY, Visibility.PUBLIC.name())), BooleanClause.Occur.SHOULD)
+                .add(new TermQuery(new Term(USER_ID, viewerId.toString())), BooleanClause.Occur.SHOULD)
+                .setMinimumNumberShouldMatch(1)
+                .build(), BooleanClause.Occur.FILTER);
+
+        IndexSearcher searcher;
+        try {
+            searcher = searcherManager.acquire();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            FieldDoc afterDoc = after != null
+                    ? new FieldDoc(Integer.MAX_VALUE, Float.NaN,
+                    new Object[]{after.createdAt(), new BytesRef(after.postId().toString())})
+                    : null;
+            TopFieldDocs top = searcher.searchAfter(afterDoc, query.build(), limit, NEWEST_FIRST);
+            StoredFields storedFields = searcher.storedFields();
+            List<Hit> hits = new ArrayList<>(top.scoreDocs.length);
+            for (ScoreDoc scoreDoc : top.scoreDocs) {
+                FieldDoc fieldDoc = (FieldDoc) scoreDoc;
+                UUID postId = UUID.fromString(storedFields.document(scoreDoc.doc).get(ID));
+                hits.add(new Hit(postId, (Long) fieldDoc.fields[0]));
+            }
+            return hits;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            try {
+                searcherManager.release(searcher);
+            } catch (IOException e) {
+                log.warn("Could not release post searcher: {}", e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        try {
+            commit();
+        } finally {
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        }
+    }
+
+    public static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L),
+                (int) Math.floorMod(millis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    private Document document(UUID postId, UUID userId, Visibility visibility, String content,
+                              LocalDateTime createdAt) {
+        String id = postId.toString();
+        Document document = new Document();
+        document.add(new StringField(ID, id, Field.Store.YES));
+        document.add(new SortedDocValuesField(ID, new BytesRef(id)));
+        document.add(new StringField(USER_ID, userId.toString(), Field.Store.NO));
+        document.add(new StringField(VISIBILITY, visibility.name(), Field.Store.NO));
+        document.add(new TextField(CONTENT, content, Field.Store.NO));
+        document.add(new NumericDocValuesField(CREATED_AT, toMillis(createdAt)));
+        return document;
+    }
+
+    private void advance(LocalDateTime changedAt) {
+        if (changedAt != null) {
+            watermark.accumulateAndGet(toMillis(changedAt), Math::max);
+        }
+    }
+
+    private Set<String> analyze(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        try (TokenStream stream = analyzer.tokenStream(CONTENT, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken() && terms.size() < MAX_QUERY_TERMS) {
+                terms.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,19 @@
+package app.service;
+
+import app.dto.PostPageDto;
+import common.event.PostCreatedEvent;
+import common.event.PostDeletedEvent;
+
+import java.util.UUID;
+
+public interface FeedService {
+    void fanOut(PostCreatedEvent event);
+
+    /**
+     * Takes a deleted post out of its author's sets; followers' copies are skipped on read
+     * and age out of their capped feeds.
+     */
+    void remove(PostDeletedEvent event);
+
+    PostPageDto getFeed(UUID userId, String cursor, int limit);
+}
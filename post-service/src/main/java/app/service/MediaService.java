@@ -0,0 +1,20 @@
+package app.service;
+
+import app.dto.PostMediaDto;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.UUID;
+
+public interface MediaService {
+    PostMediaDto upload(UUID uploaderId, String contentType, long contentLength, InputStream content);
+
+    /**
+     * The stored file behind a media URL's last segment; the content type is null if the
+     * upload had none.
+     */
+    StoredMedia load(String fileName);
+
+    record StoredMedia(Path path, String contentType) {
+    }
+}
@@ -0,0 +1,24 @@
+package app.service;
+
+import app.constant.EngagementCounter;
+import app.dto.PostMetricsDto;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+public interface PostMetricsService {
+    void increment(UUID postId, EngagementCounter counter, long delta);
+
+    PostMetricsDto getMetrics(UUID postId);
+
+    /**
+     * Every requested id is present; posts without metrics count zero.
+     */
+    Map<UUID, PostMetricsDto> getMetrics(Collection<UUID> postIds);
+
+    /**
+     * Forgets a deleted post: its deltas not yet flushed on this instance and its Redis hash.
+     */
+    void discard(UUID postId);
+}
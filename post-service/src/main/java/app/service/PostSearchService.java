@@ -0,0 +1,22 @@
+package app.service;
+
+import app.dto.PostPageDto;
+
+import java.util.UUID;
+
+public interface PostSearchService {
+    PostPageDto search(UUID viewerId, String query, String cursor, int limit);
+
+    /**
+     * Brings one post's entry in line with the database, whichever event announced the change.
+     */
+    void reindex(UUID postId);
+
+    /**
+     * Epoch millis from which the listener replays post events, early enough that every change
+     * missed by the startup rebuild or catch-up is replayed.
+     */
+    long getReplayFrom();
+
+    void rebuildIndex();
+}
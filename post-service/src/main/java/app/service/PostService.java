@@ -0,0 +1,26 @@
+package app.service;
+
+import app.dto.CreatePostRequestDto;
+import app.dto.PostDto;
+import app.dto.PostPageDto;
+import app.dto.UpdatePostRequestDto;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface PostService {
+    PostDto createPost(UUID userId, CreatePostRequestDto createPostRequestDto);
+
+    PostDto updatePost(UUID userId, UUID postId, UpdatePostRequestDto updatePostRequestDto);
+
+    String deletePost(UUID userId, UUID postId);
+
+    PostDto getPost(UUID viewerId, UUID postId);
+
+    /**
+     * Posts in the given order; unknown ids and posts hidden from the viewer are skipped.
+     */
+    List<PostDto> getPosts(UUID viewerId, List<UUID> postIds);
+
+    PostPageDto getTimeline(UUID viewerId, UUID authorId, String cursor, int limit);
+}
@@ -0,0 +1,20 @@
+package app.service;
+
+import app.dto.PostViewsDto;
+
+import java.util.Collection;
+import java.util.UUID;
+
+public interface PostViewService {
+    /**
+     * One call per client-side batch of viewed posts.
+     */
+    void recordViews(UUID viewerId, Collection<UUID> postIds);
+
+    PostViewsDto getViews(UUID postId);
+
+    /**
+     * Deletes a deleted post's view HLLs.
+     */
+    void discard(UUID postId);
+}
@@ -0,0 +1,12 @@
+package app.service;
+
+import app.dto.TrendingHashtagDto;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface TrendingService {
+    void record(Collection<String> hashtags);
+
+    List<TrendingHashtagDto> getTrendingHashtags(int limit);
+}
@@ -0,0 +1,266 @@
+package app.service.impl;
+
+import app.dto.PostDto;
+import app.dto.PostPageDto;
+import app.service.FeedService;
+import app.service.PostService;
+import app.util.CursorCodec;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import common.client.GraphClient;
+import common.constant.Visibility;
+import common.dto.ApiResponse;
+import common.dto.IdPageDto;
+import common.event.PostCreatedEvent;
+import common.event.PostDeletedEvent;
+import common.service.RedisService;
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Home feeds materialised as Redis sorted sets of post id scored by creation time.
+ * <p>
+ * Hybrid fan-out: a post is pushed into every follower's {@code feed:home:<userId>} unless its
+ * author has at least {@code celebrity-threshold} followers. Those authors are skipped on write
+ * and their {@code feed:author:<userId>} set, which every author gets, is merged in on read.
+ * A read is one pipelined range over the reader's set and their celebrity followees' sets,
+ * then one batch hydration from Postgres.
+ * <p>
+ * Follower lookups go to graph-service and are off unless {@code app.feed.graph-enabled} is
+ * set; until then feeds only hold the reader's own posts. A graph that does not know a user
+ * (404) counts as no followers.
+ */
+@Slf4j
+@Service
+public class FeedServiceImpl implements FeedService {
+
+    private static final String HOME_PREFIX = "feed:home:";
+    private static final String AUTHOR_PREFIX = "feed:author:";
+
+    private final RedisService redisService;
+    private final GraphClient graphClient;
+    private final PostService postService;
+    private final Cache<UUID, List<UUID>> celebrityFollowees;
+    private final long celebrityThreshold;
+    private final int fanoutBatchSize;
+    private final long maxLength;
+    private final Duration ttl;
+    private final int maxPageSize;
+    private final int maxMergedAuthors;
+    private final boolean graphEnabled;
+
+    private final Timer fanoutTimer;
+    private final Counter pushedPosts;
+    private final Counter pulledPosts;
+    private final Counter recipients;
+    private final Counter failures;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public FeedServiceImpl(RedisService redisService,
+                           GraphClient graphClient,
+                           PostService postService,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.feed.celebrity-threshold:10000}") long celebrityThreshold,
+                           @Value("${app.feed.fanout-batch-size:1000}") int fanoutBatchSize,
+                           @Value("${app.feed.max-length:800}") long maxLength,
+                           @Value("${app.feed.ttl:7d}") Duration ttl,
+                           @Value("${app.feed.max-page-size:50}") int maxPageSize,
+                           @Value("${app.feed.max-merged-authors:100}") int maxMergedAuthors,
+                           @Value("${app.feed.celebrity-cache-ttl:5m}") Duration celebrityCacheTtl,
+                           @Value("${app.feed.graph-enabled:false}") boolean graphEnabled) {
+        this.redisService = redisService;
+        this.graphClient = graphClient;
+        this.postService = postService;
+        this.celebrityThreshold = celebrityThreshold;
+        this.fanoutBatchSize = fanoutBatchSize;
+        this.maxLength = maxLength;
+        this.ttl = ttl;
+        this.maxPageSize = maxPageSize;
+        this.maxMergedAuthors = maxMergedAuthors;
+        this.graphEnabled = graphEnabled;
+        this.celebrityFollowees = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(celebrityCacheTtl)
+                .build();
+
+        this.fanoutTimer = Timer.builder("feed.fanout.duration")
+                .description("Time to fan a post out to all follower feeds")
+                .register(meterRegistry);
+        this.pushedPosts = Counter.builder("feed.fanout.posts")
+                .tag("mode", "push")
+                .register(meterRegistry);
+        this.pulledPosts = Counter.builder("feed.fanout.posts")
+                .tag("mode", "pull")
+                .description("Posts by celebrity authors, merged on read instead of pushed")
+                .register(meterRegistry);
+        this.recipients = Counter.builder("feed.fanout.recipients")
+                .description("Follower feeds written")
+                .register(meterRegistry);
+        this.failures = Counter.builder("feed.fanout.failures")
+                .register(meterRegistry);
+        Gauge.builder("feed.fanout.in-flight", inFlight, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Writes the followers one page at a time, each page as a single pipelined batch. A failure
+     * is rethrown so the event is redelivered; pages already written are simply rewritten.
+     */
+    @Override
+    public void fanOut(PostCreatedEvent event) {
+        UUID authorId = event.getUserId();
+        String member = event.getPostId().toString();
+        double score = score(event.getCreatedAt());
+
+        inFlight.incrementAndGet();
+        Timer.Sample sample = Timer.start();
+        try {
+            // Authors always see their own posts, whatever the visibility
+            redisService.zAddCapped(Map.of(HOME_PREFIX + authorId, Map.of(member, score)), maxLength, ttl);
+            if (event.getVisibility() != Visibility.PUBLIC) {
+                return;
+            }
+            redisService.zAddCapped(Map.of(AUTHOR_PREFIX + authorId, Map.of(member, score)), maxLength, ttl);
+            if (!graphEnabled) {
+                return;
+            }
+
+            Long followerCount;
+            try {
+                followerCount = data(graphClient.getFollowerCount(authorId));
+            } catch (FeignException.NotFound e) {
+                return;
+            }
+            if (followerCount != null && followerCount >= celebrityThreshold) {
+                pulledPosts.increment();
+                return;
+            }
+
+            String cursor = null;
+            do {
+                IdPageDto page = data(graphClient.getFollowers(authorId, cursor, fanoutBatchSize));
+                if (page == null || page.getIds() == null) {
+                    break;
+                }
+                Map<String, Map<String, Double>> entries = new HashMap<>(page.getIds().size() * 2);
+                for (UUID followerId : page.getIds()) {
+                    entries.put(HOME_PREFIX + followerId, Map.of(member, score));
+                }
+                if (!entries.isEmpty()) {
+                    redisService.zAddCapped(entries, maxLength, ttl);
+                    recipients.increment(entries.size());
+                }
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+            pushedPosts.increment();
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Fan-out failed for post {}: {}", event.getPostId(), e.getMessage());
+            throw e;
+        } finally {
+            sample.stop(fanoutTimer);
+            inFlight.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void remove(PostDeletedEvent event) {
+        List<String> member = List.of(event.getPostId().toString());
+        redisService.zRemAll(Map.of(
+                HOME_PREFIX + event.getUserId(), member,
+                AUTHOR_PREFIX + event.getUserId(), member));
+    }
+
+    @Override
+    public PostPageDto getFeed(UUID userId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        CursorCodec.ScorePosition after = cursor == null || cursor.isBlank()
+                ? new CursorCodec.ScorePosition(Double.POSITIVE_INFINITY, null) : CursorCodec.decodeScore(cursor);
+
+        List<String> keys = new ArrayList<>();
+        keys.add(HOME_PREFIX + userId);
+        if (graphEnabled) {
+            for (UUID authorId : celebrityFollowees.get(userId, this::loadCelebrityFollowees)) {
+                keys.add(AUTHOR_PREFIX + authorId);
+            }
+        }
+
+        // Each source is sorted, so its top pageSize + 1 is enough for the merged top pageSize + 1
+        Map<String, Double> merged = new HashMap<>();
+        for (List<ZSetOperations.TypedTuple<String>> range
+                : redisService.zRevRangeAfter(keys, after.score(), after.member(), pageSize + 1)) {
+            for (ZSetOperations.TypedTuple<String> entry : range) {
+                merged.putIfAbsent(entry.getValue(), entry.getScore());
+            }
+        }
+        // Same order as the Redis ranges, so the cursor's position is well defined across sources
+        List<Map.Entry<String, Double>> ordered = merged.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.<String, Double>comparingByKey(Comparator.reverseOrder())))
+                .limit(pageSize + 1L)
+                .toList();
+
+        String nextCursor = null;
+        if (ordered.size() > pageSize) {
+            ordered = ordered.subList(0, pageSize);
+            Map.Entry<String, Double> last = ordered.get(pageSize - 1);
+            nextCursor = CursorCodec.encodeScore(last.getValue(), last.getKey());
+        }
+
+        List<UUID> postIds = ordered.stream().map(entry -> UUID.fromString(entry.getKey())).toList();
+        List<PostDto> posts = postService.getPosts(userId, postIds);
+        return PostPageDto.builder()
+                .posts(posts)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Without the graph the feed still serves pushed posts, just without celebrity posts.
+     */
+    private List<UUID> loadCelebrityFollowees(UUID userId) {
+        try {
+            List<UUID> followees = data(graphClient.getFollowees(userId, celebrityThreshold));
+            if (followees == null) {
+                return List.of();
+            }
+            return followees.size() > maxMergedAuthors ? followees.subList(0, maxMergedAuthors) : followees;
+        } catch (FeignException.NotFound e) {
+            return List.of();
+        } catch (RuntimeException e) {
+            log.warn("Could not load celebrity followees for user {}: {}", userId, e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Creation time in epoch milliseconds; posts in the same millisecond are ordered by id, and
+     * cursors carry both.
+     */
+    private static double score(LocalDateTime createdAt) {
+        LocalDateTime time = createdAt != null ? createdAt : LocalDateTime.now();
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static <T> T data(ApiResponse<T> response) {
+        return response != null ? response.getData() : null;
+    }
+}
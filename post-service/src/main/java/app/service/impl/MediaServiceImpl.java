@@ -0,0 +1,135 @@
+package app.service.impl;
+
+import app.dto.PostMediaDto;
+import app.entity.PostMedia;
+import app.repository.PostMediaRepository;
+import app.service.MediaService;
+import common.constant.MediaType;
+import common.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MediaServiceImpl implements MediaService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final PostMediaRepository postMediaRepository;
+
+    @Value("${app.media.storage-dir:media}")
+    private Path storageDir;
+
+    @Value("${app.media.max-size:100MB}")
+    private DataSize maxSize;
+
+    @Value("${app.media.public-base-url:/api/posts/media/}")
+    private String publicBaseUrl;
+
+    /**
+     * Stream the request body to storage through a fixed-size buffer, so memory use does
+     * not depend on the file size.
+     */
+    @Override
+    public PostMediaDto upload(UUID uploaderId, String contentType, long contentLength, InputStream content) {
+        long limit = maxSize.toBytes();
+        if (contentLength > limit) {
+            throw new BusinessException("File is too large", HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+
+        String fileName = UUID.randomUUID().toString();
+        Path target = storageDir.resolve(fileName);
+        long written = 0;
+        try {
+            Files.createDirectories(storageDir);
+            try (OutputStream out = Files.newOutputStream(target)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    written += read;
+                    if (written > limit) {
+                        throw new BusinessException("File is too large", HttpStatus.PAYLOAD_TOO_LARGE);
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+        } catch (IOException | BusinessException e) {
+            deleteQuietly(target);
+            if (e instanceof BusinessException businessException) {
+                throw businessException;
+            }
+            log.error("Error storing upload: {}", fileName, e);
+            throw new BusinessException("Upload failed", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        PostMedia media = PostMedia.builder()
+                .uploaderId(uploaderId)
+                .mediaType(resolveMediaType(contentType))
+                .url(publicBaseUrl + fileName)
+                .contentType(contentType)
+                .fileSize(written)
+                .build();
+        postMediaRepository.save(media);
+
+        return PostMediaDto.builder()
+                .id(media.getId())
+                .mediaType(media.getMediaType())
+                .url(media.getUrl())
+                .fileSize(media.getFileSize())
+                .build();
+    }
+
+    /**
+     * File names are the UUIDs handed out by {@link #upload}, so anything else is unknown
+     * rather than resolved against the storage directory.
+     */
+    @Override
+    public StoredMedia load(String fileName) {
+        try {
+            UUID.fromString(fileName);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Media not found", HttpStatus.NOT_FOUND);
+        }
+        PostMedia media = postMediaRepository.findByUrl(publicBaseUrl + fileName).orElseThrow(
+                () -> new BusinessException("Media not found", HttpStatus.NOT_FOUND));
+        Path path = storageDir.resolve(fileName);
+        if (!Files.isRegularFile(path)) {
+            log.error("Stored file missing for media {}: {}", media.getId(), path);
+            throw new BusinessException("Media not found", HttpStatus.NOT_FOUND);
+        }
+        return new StoredMedia(path, media.getContentType());
+    }
+
+    private static MediaType resolveMediaType(String contentType) {
+        if (contentType == null) {
+            return MediaType.DOCUMENT;
+        }
+        if (contentType.startsWith("image/")) {
+            return MediaType.IMAGE;
+        }
+        if (contentType.startsWith("video/")) {
+            return MediaType.VIDEO;
+        }
+        return MediaType.DOCUMENT;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete partial upload: {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package app.service.impl;
+
+import app.constant.EngagementCounter;
+import app.dto.PostMetricsDto;
+import app.entity.PostMetrics;
+import app.repository.PostMetricsRepository;
+import app.service.PostMetricsService;
+import common.service.RedisService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind engagement counters. An increment only adds to a per-post, per-counter
+ * {@link LongAdder}, so concurrent likes on a viral post spread over the adder's cells instead
+ * of queueing on the post's row lock. A periodic flush writes the summed deltas to Postgres in
+ * one batched upsert, then to the Redis hash {@code post:metrics:<postId>} with pipelined HINCRBY.
+ * <p>
+ * Generations: each flush swaps in a fresh map and writes the one retired by the previous
+ * flush, which has had a full interval for in-flight increments to land. Reads add the
+ * deltas still held in memory to the persisted counts.
+ * <p>
+ * Postgres is authoritative. A Redis hash only counts once seeded from Postgres. Flushes only
+ * increment seeded hashes and never extend their TTL, and a seed never overwrites a seeded
+ * hash, so a seed racing a flush is off by at most that flush's delta until the hash expires.
+ * <p>
+ * Deltas for a post that no longer exists are dropped by the upsert itself, so a delete racing
+ * a flush on any instance cannot bring the row back.
+ */
+@Slf4j
+@Service
+public class PostMetricsServiceImpl implements PostMetricsService {
+
+    private static final String KEY_PREFIX = "post:metrics:";
+    private static final String SEEDED_FIELD = "seeded";
+    private static final EngagementCounter[] COUNTERS = EngagementCounter.values();
+    private static final String UPSERT = "INSERT INTO post_metrics " +
+            "(post_id, likes_count, comments_count, shares_count, views_count, updated_at) " +
+            "SELECT ?, ?, ?, ?, ?, now() WHERE EXISTS (SELECT 1 FROM posts WHERE id = ?) " +
+            "ON CONFLICT (post_id) DO UPDATE SET " +
+            "likes_count = post_metrics.likes_count + EXCLUDED.likes_count, " +
+            "comments_count = post_metrics.comments_count + EXCLUDED.comments_count, " +
+            "shares_count = post_metrics.shares_count + EXCLUDED.shares_count, " +
+            "views_count = post_metrics.views_count + EXCLUDED.views_count, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RedisService redisService;
+    private final PostMetricsRepository postMetricsRepository;
+    private final Duration redisTtl;
+
+    private final AtomicReference<ConcurrentHashMap<UUID, LongAdder[]>> current =
+            new AtomicReference<>(new ConcurrentHashMap<>());
+    private volatile ConcurrentHashMap<UUID, LongAdder[]> retired = new ConcurrentHashMap<>();
+    private volatile ConcurrentHashMap<UUID, LongAdder[]> flushing = new ConcurrentHashMap<>();
+
+    private final Timer flushTimer;
+    private final DistributionSummary flushRows;
+    private final Counter flushFailures;
+
+    public PostMetricsServiceImpl(JdbcTemplate jdbcTemplate,
+                                  RedisService redisService,
+                                  PostMetricsRepository postMetricsRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.metrics.redis-ttl:1h}") Duration redisTtl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.redisService = redisService;
+        this.postMetricsRepository = postMetricsRepository;
+        this.redisTtl = redisTtl;
+
+        this.flushTimer = Timer.builder("post.metrics.flush")
+                .description("Time to write pending counter deltas to Postgres and Redis")
+                .register(meterRegistry);
+        this.flushRows = DistributionSummary.builder("post.metrics.flush.rows")
+                .description("Posts written per flush")
+                .register(meterRegistry);
+        this.flushFailures = Counter.builder("post.metrics.flush.failures")
+                .register(meterRegistry);
+        Gauge.builder("post.metrics.pending", this, service -> service.current.get().size() + service.retired.size())
+                .description("Posts with deltas not yet flushed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void increment(UUID postId, EngagementCounter counter, long delta) {
+        ConcurrentHashMap<UUID, LongAdder[]> adders = current.get();
+        LongAdder[] postAdders = adders.get(postId);
+        if (postAdders == null) {
+            postAdders = adders.computeIfAbsent(postId, id -> newAdders());
+        }
+        postAdders[counter.ordinal()].add(delta);
+    }
+
+    @Override
+    public PostMetricsDto getMetrics(UUID postId) {
+        return getMetrics(List.of(postId)).get(postId);
+    }
+
+    @Override
+    public Map<UUID, PostMetricsDto> getMetrics(Collection<UUID> postIds) {
+        List<UUID> ids = new ArrayList<>(new LinkedHashSet<>(postIds));
+        Map<UUID, long[]> persisted = readPersisted(ids);
+
+        Map<UUID, PostMetricsDto> result = new HashMap<>();
+        for (UUID postId : ids) {
+            long[] counts = persisted.getOrDefault(postId, new long[COUNTERS.length]);
+            addPending(counts, current.get().get(postId));
+            addPending(counts, retired.get(postId));
+            addPending(counts, flushing.get(postId));
+            result.put(postId, PostMetricsDto.builder()
+                    .postId(postId)
+                    .likesCount(counts[EngagementCounter.LIKES.ordinal()])
+                    .commentsCount(counts[EngagementCounter.COMMENTS.ordinal()])
+                    .sharesCount(counts[EngagementCounter.SHARES.ordinal()])
+                    .viewsCount(counts[EngagementCounter.VIEWS.ordinal()])
+                    .build());
+        }
+        return result;
+    }
+
+    @Override
+    public void discard(UUID postId) {
+        current.get().remove(postId);
+        retired.remove(postId);
+        flushing.remove(postId);
+        redisService.delete(key(postId));
+    }
+
+    @Scheduled(fixedDelayString = "${app.metrics.flush-interval-ms:2000}")
+    public void flush() {
+        flushing = retired;
+        retired = current.getAndSet(new ConcurrentHashMap<>());
+        write(flushing);
+        flushing = new ConcurrentHashMap<>();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+        flush();
+    }
+
+    private void write(Map<UUID, LongAdder[]> generation) {
+        if (generation.isEmpty()) {
+            return;
+        }
+        Map<UUID, long[]> deltas = new HashMap<>();
+        generation.forEach((postId, adders) -> {
+            long[] values = new long[COUNTERS.length];
+            boolean changed = false;
+            for (int i = 0; i < values.length; i++) {
+                values[i] = adders[i].sumThenReset();
+                changed |= values[i] != 0;
+            }
+            if (changed) {
+                deltas.put(postId, values);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        // A fixed row order keeps concurrent flushes from several instances from deadlocking
+        List<Object[]> rows = deltas.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> {
+                    long[] values = entry.getValue();
+                    return new Object[]{entry.getKey(), values[0], values[1], values[2], values[3], entry.getKey()};
+                })
+                .toList();
+        int[] updated;
+        try {
+            updated = flushTimer.record(() -> jdbcTemplate.batchUpdate(UPSERT, rows));
+            flushRows.record(rows.size());
+        } catch (RuntimeException e) {
+            // Keep the deltas for the next flush rather than lose them
+            flushFailures.increment();
+            log.warn("Counter flush of {} posts failed, retrying next interval: {}", rows.size(), e.getMessage());
+            deltas.forEach((postId, values) -> {
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] != 0) {
+                        increment(postId, COUNTERS[i], values[i]);
+                    }
+                }
+            });
+            return;
+        }
+
+        Map<String, Map<String, Long>> increments = new HashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            // Zero rows: the post was deleted, so its hash must not be recreated either
+            if (i < updated.length && updated[i] == 0) {
+                deltas.remove((UUID) rows.get(i)[0]);
+            }
+        }
+        deltas.forEach((postId, values) -> {
+            Map<String, Long> fields = new HashMap<>();
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != 0) {
+                    fields.put(COUNTERS[i].getField(), values[i]);
+                }
+            }
+            increments.put(key(postId), fields);
+        });
+        try {
+            redisService.hIncrByAllIfPresent(increments, SEEDED_FIELD);
+        } catch (RuntimeException e) {
+            log.warn("Counter flush to Redis failed for {} posts: {}", increments.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Seeded Redis hashes first, then one Postgres query for the rest, which are seeded in turn.
+     */
+    private Map<UUID, long[]> readPersisted(List<UUID> postIds) {
+        List<String> fields = new ArrayList<>();
+        fields.add(SEEDED_FIELD);
+        Arrays.stream(COUNTERS).map(EngagementCounter::getField).forEach(fields::add);
+
+        List<String> keys = postIds.stream().map(PostMetricsServiceImpl::key).toList();
+        List<List<String>> values = redisService.hMultiGet(keys, postIds.stream().map(id -> fields).toList());
+
+        Map<UUID, long[]> result = new HashMap<>();
+        List<UUID> misses = new ArrayList<>();
+        for (int i = 0; i < postIds.size(); i++) {
+            List<String> hash = i < values.size() ? values.get(i) : null;
+            if (hash == null || hash.get(0) == null) {
+                misses.add(postIds.get(i));
+                continue;
+            }
+            long[] counts = new long[COUNTERS.length];
+            for (int j = 0; j < counts.length; j++) {
+                String value = hash.get(j + 1);
+                counts[j] = value != null ? Long.parseLong(value) : 0;
+            }
+            result.put(postIds.get(i), counts);
+        }
+        if (misses.isEmpty()) {
+            return result;
+        }
+
+        Map<UUID, PostMetrics> fromDb = postMetricsRepository.findAllById(misses).stream()
+                .collect(Collectors.toMap(PostMetrics::getPostId, metrics -> metrics));
+        Map<String, Map<String, String>> seeds = new HashMap<>();
+        for (UUID postId : misses) {
+            PostMetrics metrics = fromDb.get(postId);
+            long[] counts = metrics != null ? new long[]{
+                    metrics.getLikesCount(), metrics.getCommentsCount(),
+                    metrics.getSharesCount(), metrics.getViewsCount()} : new long[COUNTERS.length];
+            result.put(postId, counts);
+
+            Map<String, String> hash = new HashMap<>();
+            hash.put(SEEDED_FIELD, "1");
+            for (int j = 0; j < counts.length; j++) {
+                hash.put(COUNTERS[j].getField(), Long.toString(counts[j]));
+            }
+            seeds.put(key(postId), hash);
+        }
+        try {
+            redisService.hSetAllIfAbsent(seeds, SEEDED_FIELD, redisTtl);
+        } catch (RuntimeException e) {
+            log.warn("Could not seed metrics for {} posts: {}", seeds.size(), e.getMessage());
+        }
+        return result;
+    }
+
+    private static void addPending(long[] counts, LongAdder[] adders) {
+        if (adders == null) {
+            return;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += adders[i].sum();
+        }
+    }
+
+    private static LongAdder[] newAdders() {
+        LongAdder[] adders = new LongAdder[COUNTERS.length];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static String key(UUID postId) {
+        return KEY_PREFIX + postId;
+    }
+}
@@ -0,0 +1,211 @@
+package app.service.impl;
+
+import app.dto.PostDto;
+import app.dto.PostPageDto;
+import app.dto.PostRowView;
+import app.repository.PostRepository;
+import app.repository.PostTombstoneRepository;
+import app.search.PostSearchIndex;
+import app.service.PostSearchService;
+import app.service.PostService;
+import app.util.CursorCodec;
+import common.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Keyword search over post content. Matching, visibility filtering and paging happen in the
+ * local Lucene index; only the final page of ids is loaded from Postgres.
+ * <p>
+ * On startup an empty index is rebuilt by streaming the posts table, and an existing one
+ * catches up on rows changed since its last commit and drops posts tombstoned since then. An
+ * index older than the tombstone retention could miss deletes, so it is rebuilt instead.
+ * Changes committed while that runs are picked up by the post event listener, which replays
+ * from shortly before this instance was created.
+ */
+@Slf4j
+@Service
+public class PostSearchServiceImpl implements PostSearchService {
+
+    private static final int MAX_QUERY_LENGTH = 200;
+
+    private final PostSearchIndex postSearchIndex;
+    private final PostRepository postRepository;
+    private final PostTombstoneRepository postTombstoneRepository;
+    private final PostService postService;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxPageSize;
+    private final Duration catchUpSlack;
+    private final Duration tombstoneRetention;
+    private final boolean rebuildOnStartup;
+    private final long replayFrom;
+
+    private final Timer searchTimer;
+    private final Counter reindexed;
+
+    public PostSearchServiceImpl(PostSearchIndex postSearchIndex,
+                                 PostRepository postRepository,
+                                 PostTombstoneRepository postTombstoneRepository,
+                                 PostService postService,
+                                 TransactionTemplate transactionTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.post-search.max-page-size:50}") int maxPageSize,
+                                 @Value("${app.post-search.catch-up-slack:5m}") Duration catchUpSlack,
+                                 @Value("${app.post-search.tombstone-retention:30d}") Duration tombstoneRetention,
+                                 @Value("${app.post-search.rebuild-on-startup:false}") boolean rebuildOnStartup) {
+        this.postSearchIndex = postSearchIndex;
+        this.postRepository = postRepository;
+        this.postTombstoneRepository = postTombstoneRepository;
+        this.postService = postService;
+        this.transactionTemplate = transactionTemplate;
+        this.maxPageSize = maxPageSize;
+        this.catchUpSlack = catchUpSlack;
+        this.tombstoneRetention = tombstoneRetention;
+        this.rebuildOnStartup = rebuildOnStartup;
+        // Before the startup rebuild or catch-up reads the table; the slack covers clock skew
+        this.replayFrom = System.currentTimeMillis() - catchUpSlack.toMillis();
+
+        this.searchTimer = Timer.builder("post.search.query")
+                .description("Index lookup, excluding post hydration")
+                .register(meterRegistry);
+        this.reindexed = Counter.builder("post.search.reindexed")
+                .register(meterRegistry);
+        Gauge.builder("post.search.index.docs", postSearchIndex, PostSearchIndex::size)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public PostPageDto search(UUID viewerId, String query, String cursor, int limit) {
+        if (query == null || query.isBlank() || query.length() > MAX_QUERY_LENGTH) {
+            throw new BusinessException("Query must be 1 to " + MAX_QUERY_LENGTH + " characters", HttpStatus.BAD_REQUEST);
+        }
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        PostSearchIndex.Hit after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            CursorCodec.Position position = CursorCodec.decode(cursor);
+            after = new PostSearchIndex.Hit(position.id(), PostSearchIndex.toMillis(position.createdAt()));
+        }
+
+        PostSearchIndex.Hit start = after;
+        // One extra hit tells whether another page exists
+        List<PostSearchIndex.Hit> hits = searchTimer.record(
+                () -> postSearchIndex.search(viewerId, query, start, pageSize + 1));
+
+        String nextCursor = null;
+        if (hits.size() > pageSize) {
+            hits = hits.subList(0, pageSize);
+            PostSearchIndex.Hit last = hits.get(pageSize - 1);
+            nextCursor = CursorCodec.encode(PostSearchIndex.fromMillis(last.createdAt()), last.postId());
+        }
+
+        List<PostDto> posts = postService.getPosts(viewerId, hits.stream().map(PostSearchIndex.Hit::postId).toList());
+        return PostPageDto.builder()
+                .posts(posts)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    public void reindex(UUID postId) {
+        List<PostRowView> rows = postRepository.findRowsByIdIn(List.of(postId));
+        if (rows.isEmpty()) {
+            postSearchIndex.delete(postId);
+        } else {
+            postSearchIndex.index(rows.stream());
+        }
+        reindexed.increment();
+    }
+
+    @Override
+    public long getReplayFrom() {
+        return replayFrom;
+    }
+
+    /**
+     * A failed rebuild leaves the index at its last commit, which is then caught up so the
+     * live updates rolled back with it are not lost.
+     */
+    @Override
+    public void rebuildIndex() {
+        long start = System.nanoTime();
+        long count;
+        try {
+            count = transactionTemplate.execute(status -> {
+                try (Stream<PostRowView> rows = postRepository.streamAllRows()) {
+                    return postSearchIndex.rebuild(rows);
+                }
+            });
+        } catch (RuntimeException e) {
+            LocalDateTime watermark = postSearchIndex.getWatermark();
+            if (watermark != null) {
+                catchUp(watermark);
+            }
+            throw e;
+        }
+        log.info("Post search index rebuilt with {} posts in {} ms", count, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        try {
+            LocalDateTime watermark = postSearchIndex.getWatermark();
+            if (rebuildOnStartup || watermark == null || postSearchIndex.size() == 0
+                    || watermark.isBefore(LocalDateTime.now().minus(tombstoneRetention).plus(catchUpSlack))) {
+                rebuildIndex();
+                return;
+            }
+            catchUp(watermark);
+        } catch (Exception e) {
+            log.error("Post search index load failed", e);
+        }
+    }
+
+    private void catchUp(LocalDateTime watermark) {
+        LocalDateTime since = watermark.minus(catchUpSlack);
+        long count = transactionTemplate.execute(status -> {
+            try (Stream<PostRowView> rows = postRepository.streamRowsUpdatedSince(since)) {
+                return postSearchIndex.index(rows);
+            }
+        });
+        // Post ids are never reused, so a tombstone can only mean the post is gone
+        List<UUID> deleted = postTombstoneRepository.findPostIdsDeletedSince(since);
+        deleted.forEach(postSearchIndex::delete);
+        postSearchIndex.commit();
+        postSearchIndex.refresh();
+        log.info("Post search index caught up on {} posts changed and {} deleted since {}",
+                count, deleted.size(), watermark);
+    }
+
+    @Scheduled(cron = "${app.post-search.tombstone-purge-cron:0 30 3 * * *}")
+    public void purgeTombstones() {
+        LocalDateTime before = LocalDateTime.now().minus(tombstoneRetention);
+        Integer purged = transactionTemplate.execute(status -> postTombstoneRepository.deleteDeletedBefore(before));
+        log.info("Purged {} post tombstones older than {}", purged, before);
+    }
+
+    @Scheduled(fixedDelayString = "${app.post-search.refresh-interval-ms:1000}")
+    public void refresh() {
+        postSearchIndex.refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${app.post-search.commit-interval-ms:60000}")
+    public void commit() {
+        postSearchIndex.commit();
+    }
+}
@@ -0,0 +1,326 @@
+package app.service.impl;
+
+import app.dto.CreatePostRequestDto;
+import app.dto.PostDto;
+import app.dto.PostMediaDto;
+import app.dto.PostMediaView;
+import app.dto.PostPageDto;
+import app.dto.PostRowView;
+import app.dto.PostTagView;
+import app.dto.UpdatePostRequestDto;
+import app.entity.Post;
+import app.entity.PostTombstone;
+import app.repository.PostMediaRepository;
+import app.repository.PostMetricsRepository;
+import app.repository.PostRepository;
+import app.repository.PostTombstoneRepository;
+import app.service.PostService;
+import app.util.CursorCodec;
+import common.client.UserProfileLoader;
+import common.constant.RedisChannel;
+import common.constant.Visibility;
+import common.dto.UserProfileDto;
+import common.event.PostCreatedEvent;
+import common.event.PostDeletedEvent;
+import common.event.PostUpdatedEvent;
+import common.exception.BusinessException;
+import common.outbox.OutboxService;
+import common.service.RedisService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads go through scalar projections plus one IN query per collection, so a page costs
+ * four queries whatever its size, and never touches the lazy associations. Authors come from
+ * one batched user-service lookup.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostServiceImpl implements PostService {
+
+    private static final String POST_CREATED_TOPIC = "post.created";
+    private static final String POST_UPDATED_TOPIC = "post.updated";
+    private static final String POST_DELETED_TOPIC = "post.deleted";
+    private static final Pattern HASHTAG = Pattern.compile("#(\\w{1,100})", Pattern.UNICODE_CHARACTER_CLASS);
+    private static final Pattern MENTION = Pattern.compile("@(\\w{1,50})");
+
+    private final PostRepository postRepository;
+    private final PostMediaRepository postMediaRepository;
+    private final PostMetricsRepository postMetricsRepository;
+    private final PostTombstoneRepository postTombstoneRepository;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final RedisService redisService;
+    private final UserProfileLoader userProfileLoader;
+
+    @Value("${app.timeline.max-page-size:50}")
+    private int maxPageSize;
+
+    @Value("${app.timeline.author-timeout:500ms}")
+    private Duration authorTimeout;
+
+    @Override
+    public PostDto createPost(UUID userId, CreatePostRequestDto createPostRequestDto) {
+        Post post = Post.builder()
+                .userId(userId)
+                .content(createPostRequestDto.getContent())
+                .hashtags(extract(HASHTAG, createPostRequestDto.getContent(), true))
+                .mentions(extract(MENTION, createPostRequestDto.getContent(), false))
+                .visibility(createPostRequestDto.getVisibility() != null
+                        ? createPostRequestDto.getVisibility() : Visibility.PUBLIC)
+                .build();
+        List<UUID> mediaIds = createPostRequestDto.getMediaIds() != null
+                ? List.copyOf(new LinkedHashSet<>(createPostRequestDto.getMediaIds())) : List.of();
+
+        // The event commits with the post; the outbox relay publishes it to Kafka
+        transactionTemplate.executeWithoutResult(status -> {
+            postRepository.save(post);
+            if (!mediaIds.isEmpty()
+                    && postMediaRepository.attachToPost(post, mediaIds, userId) != mediaIds.size()) {
+                throw new BusinessException("Media not found or already attached", HttpStatus.BAD_REQUEST);
+            }
+
+            outboxService.publish(POST_CREATED_TOPIC, userId.toString(), PostCreatedEvent.builder()
+                    .postId(post.getId())
+                    .userId(userId)
+                    .visibility(post.getVisibility())
+                    .hashtags(post.getHashtags())
+                    .mentions(post.getMentions())
+                    .createdAt(post.getCreatedAt())
+                    .build());
+        });
+
+        return getPost(userId, post.getId());
+    }
+
+    /**
+     * Post events are keyed by author, so a post's create, edits and delete stay in order.
+     */
+    @Override
+    public PostDto updatePost(UUID userId, UUID postId, UpdatePostRequestDto updatePostRequestDto) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Post post = findOwnPost(userId, postId);
+            post.setContent(updatePostRequestDto.getContent());
+            post.getHashtags().clear();
+            post.getHashtags().addAll(extract(HASHTAG, updatePostRequestDto.getContent(), true));
+            post.getMentions().clear();
+            post.getMentions().addAll(extract(MENTION, updatePostRequestDto.getContent(), false));
+            if (updatePostRequestDto.getVisibility() != null) {
+                post.setVisibility(updatePostRequestDto.getVisibility());
+            }
+            post.setIsEdited(true);
+            postRepository.save(post);
+
+            outboxService.publish(POST_UPDATED_TOPIC, userId.toString(), PostUpdatedEvent.builder()
+                    .postId(postId)
+                    .userId(userId)
+                    .visibility(post.getVisibility())
+                    .hashtags(List.copyOf(post.getHashtags()))
+                    .mentions(List.copyOf(post.getMentions()))
+                    .createdAt(post.getCreatedAt())
+                    .timestamp(LocalDateTime.now())
+                    .build());
+        });
+        invalidateGatewayCache(postId);
+
+        return getPost(userId, postId);
+    }
+
+    @Override
+    public String deletePost(UUID userId, UUID postId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Post post = findOwnPost(userId, postId);
+            postRepository.delete(post);
+            postMetricsRepository.deleteAllByIdInBatch(List.of(postId));
+            postTombstoneRepository.save(PostTombstone.builder().postId(postId).build());
+
+            outboxService.publish(POST_DELETED_TOPIC, userId.toString(), PostDeletedEvent.builder()
+                    .postId(postId)
+                    .userId(userId)
+                    .timestamp(LocalDateTime.now())
+                    .build());
+        });
+        invalidateGatewayCache(postId);
+        return "Successfully deleted!";
+    }
+
+    /**
+     * Drops every viewer's gateway copy of the post; on failure they live out their max-age.
+     */
+    private void invalidateGatewayCache(UUID postId) {
+        try {
+            redisService.publish(RedisChannel.GATEWAY_CACHE_INVALIDATION, "/posts/" + postId);
+        } catch (RuntimeException e) {
+            log.warn("Could not invalidate gateway cache for post {}: {}", postId, e.getMessage());
+        }
+    }
+
+    private Post findOwnPost(UUID userId, UUID postId) {
+        Post post = postRepository.findById(postId).orElseThrow(
+                () -> new BusinessException("Post not found", HttpStatus.NOT_FOUND)
+        );
+        if (!post.getUserId().equals(userId)) {
+            throw new BusinessException("Post does not belong to user", HttpStatus.FORBIDDEN);
+        }
+        return post;
+    }
+
+    @Override
+    public PostDto getPost(UUID viewerId, UUID postId) {
+        List<PostRowView> rows = postRepository.findRowsByIdIn(List.of(postId));
+        if (rows.isEmpty() || !visibleTo(viewerId, rows.get(0))) {
+            throw new BusinessException("Post not found", HttpStatus.NOT_FOUND);
+        }
+        return toDtos(rows).get(0);
+    }
+
+    @Override
+    public List<PostDto> getPosts(UUID viewerId, List<UUID> postIds) {
+        if (postIds.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, PostRowView> byId = new HashMap<>();
+        for (PostRowView row : postRepository.findRowsByIdIn(postIds)) {
+            if (visibleTo(viewerId, row)) {
+                byId.put(row.getId(), row);
+            }
+        }
+        List<PostRowView> rows = postIds.stream().distinct().map(byId::get).filter(Objects::nonNull).toList();
+        return toDtos(rows);
+    }
+
+    /**
+     * Keyset pagination over (user_id, created_at, id): each page seeks straight to the
+     * cursor position, so page 10,000 costs the same as page 1.
+     */
+    @Override
+    public PostPageDto getTimeline(UUID viewerId, UUID authorId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        Set<Visibility> visibilities = viewerId.equals(authorId)
+                ? EnumSet.allOf(Visibility.class) : EnumSet.of(Visibility.PUBLIC);
+        // One extra row tells whether another page exists without a count query
+        PageRequest page = PageRequest.ofSize(pageSize + 1);
+
+        List<PostRowView> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = postRepository.findTimeline(authorId, visibilities, page);
+        } else {
+            CursorCodec.Position position = CursorCodec.decode(cursor);
+            rows = postRepository.findTimelineAfter(authorId, visibilities,
+                    position.createdAt(), position.id(), page);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            PostRowView last = rows.get(pageSize - 1);
+            nextCursor = CursorCodec.encode(last.getCreatedAt(), last.getId());
+        }
+
+        return PostPageDto.builder()
+                .posts(toDtos(rows))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Friends-only posts need the social graph, which this service does not have yet, so
+     * they are shown to their author only.
+     */
+    private static boolean visibleTo(UUID viewerId, PostRowView row) {
+        return row.getVisibility() == Visibility.PUBLIC || row.getUserId().equals(viewerId);
+    }
+
+    private List<PostDto> toDtos(List<PostRowView> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> postIds = rows.stream().map(PostRowView::getId).toList();
+
+        Map<UUID, List<PostMediaDto>> media = new HashMap<>();
+        for (PostMediaView view : postMediaRepository.findViewsByPostIdIn(postIds)) {
+            media.computeIfAbsent(view.getPostId(), id -> new ArrayList<>()).add(PostMediaDto.builder()
+                    .id(view.getId())
+                    .mediaType(view.getMediaType())
+                    .url(view.getUrl())
+                    .thumbnailUrl(view.getThumbnailUrl())
+                    .fileSize(view.getFileSize())
+                    .build());
+        }
+        Map<UUID, List<String>> hashtags = group(postRepository.findHashtagsByPostIdIn(postIds));
+        Map<UUID, List<String>> mentions = group(postRepository.findMentionsByPostIdIn(postIds));
+        Map<UUID, UserProfileDto> authors = loadAuthors(rows);
+
+        return rows.stream().map(row -> PostDto.builder()
+                .id(row.getId())
+                .userId(row.getUserId())
+                .author(authors.get(row.getUserId()))
+                .content(row.getContent())
+                .mediaList(media.getOrDefault(row.getId(), List.of()))
+                .hashtags(hashtags.getOrDefault(row.getId(), List.of()))
+                .mentions(mentions.getOrDefault(row.getId(), List.of()))
+                .isEdited(row.getIsEdited())
+                .visibility(row.getVisibility())
+                .createdAt(row.getCreatedAt())
+                .updatedAt(row.getUpdatedAt())
+                .build()).toList();
+    }
+
+    /**
+     * One batched user-service call for the page's authors, shared with concurrent renders.
+     * Posts are still served, without authors, if user-service is slow or down.
+     */
+    private Map<UUID, UserProfileDto> loadAuthors(List<PostRowView> rows) {
+        List<UUID> authorIds = rows.stream().map(PostRowView::getUserId).distinct().toList();
+        try {
+            return userProfileLoader.loadMany(authorIds).get(authorTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Could not load post authors: {}", e.getMessage());
+        }
+        return Map.of();
+    }
+
+    private static Map<UUID, List<String>> group(List<PostTagView> tags) {
+        Map<UUID, List<String>> grouped = new HashMap<>();
+        for (PostTagView tag : tags) {
+            grouped.computeIfAbsent(tag.getPostId(), id -> new ArrayList<>()).add(tag.getTag());
+        }
+        return grouped;
+    }
+
+    private static List<String> extract(Pattern pattern, String content, boolean lowerCase) {
+        Set<String> values = new LinkedHashSet<>();
+        Matcher matcher = pattern.matcher(content);
+        while (matcher.find()) {
+            String value = matcher.group(1);
+            values.add(lowerCase ? value.toLowerCase(Locale.ROOT) : value);
+        }
+        return new ArrayList<>(values);
+    }
+}
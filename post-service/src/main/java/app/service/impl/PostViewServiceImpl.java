@@ -0,0 +1,228 @@
+package app.service.impl;
+
+import app.constant.EngagementCounter;
+import app.dto.PostViewsDto;
+import app.repository.PostRepository;
+import app.service.PostMetricsService;
+import app.service.PostViewService;
+import common.service.RedisService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Unique viewers per post in Redis HyperLogLogs, which stay at most 12 KB however many
+ * viewers a post has (sparse encoding keeps small ones far smaller).
+ * <p>
+ * Views land in an hourly HLL {@code post:views:h:<hour>:<postId>}, and the post is added to
+ * {@code post:views:touched:<hour>}. Once an hour has passed, one instance merges each touched
+ * post's hourly HLL into the daily {@code post:views:d:<day>:<postId>} and the lifetime
+ * {@code post:views:all:<postId>}. Hourly and daily HLLs expire, so only the lifetime one is
+ * kept per post. PFMERGE is idempotent, so an hour rolled up twice counts the same.
+ * <p>
+ * Reads count the union of the merged totals and the hours not rolled up yet.
+ */
+@Slf4j
+@Service
+public class PostViewServiceImpl implements PostViewService {
+
+    private static final String KEY_PREFIX = "post:views:";
+    private static final long HOUR_SECONDS = 3600;
+    private static final long DAY_SECONDS = 86400;
+    private static final int ROLLUP_BATCH_SIZE = 500;
+
+    private final RedisService redisService;
+    private final PostMetricsService postMetricsService;
+    private final PostRepository postRepository;
+    private final int pendingHours;
+    private final Duration hourlyTtl;
+    private final Duration dailyTtl;
+
+    private final Counter views;
+    private final Counter rolledUpPosts;
+    private final Timer rollupTimer;
+
+    public PostViewServiceImpl(RedisService redisService,
+                               PostMetricsService postMetricsService,
+                               PostRepository postRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.views.pending-hours:3}") int pendingHours,
+                               @Value("${app.views.daily-ttl:2d}") Duration dailyTtl) {
+        this.redisService = redisService;
+        this.postMetricsService = postMetricsService;
+        this.postRepository = postRepository;
+        this.pendingHours = pendingHours;
+        // Hourly keys must outlive every rollup attempt that may still read them
+        this.hourlyTtl = Duration.ofSeconds(HOUR_SECONDS * (pendingHours + 1));
+        this.dailyTtl = dailyTtl;
+
+        this.views = Counter.builder("post.views.recorded")
+                .register(meterRegistry);
+        this.rolledUpPosts = Counter.builder("post.views.rollup.posts")
+                .description("Hourly HLLs merged into daily and lifetime totals")
+                .register(meterRegistry);
+        this.rollupTimer = Timer.builder("post.views.rollup")
+                .register(meterRegistry);
+    }
+
+    /**
+     * One pipelined round trip for the whole batch: a PFADD and an SADD per post. Ids of posts
+     * that do not exist are skipped, so they leave no keys or counter rows behind.
+     */
+    @Override
+    public void recordViews(UUID viewerId, Collection<UUID> postIds) {
+        Set<UUID> requested = new LinkedHashSet<>(postIds);
+        if (requested.isEmpty()) {
+            return;
+        }
+        requested.retainAll(new HashSet<>(postRepository.findExistingIds(requested)));
+        List<UUID> unique = new ArrayList<>(requested);
+        if (unique.isEmpty()) {
+            return;
+        }
+        long hour = currentHour();
+        byte[] viewer = bytes(viewerId.toString());
+        byte[] touchedKey = bytes(touchedKey(hour));
+
+        redisService.executePipelined(connection -> {
+            for (UUID postId : unique) {
+                byte[] hourlyKey = bytes(hourlyKey(hour, postId));
+                connection.hyperLogLogCommands().pfAdd(hourlyKey, viewer);
+                connection.keyCommands().expire(hourlyKey, hourlyTtl.toSeconds());
+                connection.setCommands().sAdd(touchedKey, bytes(postId.toString()));
+            }
+            connection.keyCommands().expire(touchedKey, hourlyTtl.toSeconds());
+            return null;
+        });
+
+        // Raw view counts, refreshes included
+        for (UUID postId : unique) {
+            postMetricsService.increment(postId, EngagementCounter.VIEWS, 1);
+        }
+        views.increment(unique.size());
+    }
+
+    @Override
+    public PostViewsDto getViews(UUID postId) {
+        long hour = currentHour();
+        long today = hour * HOUR_SECONDS / DAY_SECONDS;
+
+        List<String> lifetime = new ArrayList<>();
+        List<String> daily = new ArrayList<>();
+        lifetime.add(lifetimeKey(postId));
+        daily.add(dailyKey(today, postId));
+        for (long h = hour; h > hour - pendingHours - 1; h--) {
+            lifetime.add(hourlyKey(h, postId));
+            if (h * HOUR_SECONDS / DAY_SECONDS == today) {
+                daily.add(hourlyKey(h, postId));
+            }
+        }
+
+        List<Long> counts = redisService.pfCountAll(List.of(lifetime, daily));
+        return PostViewsDto.builder()
+                .postId(postId)
+                .uniqueViewers(counts.get(0))
+                .uniqueViewersToday(counts.get(1))
+                .build();
+    }
+
+    /**
+     * Drops the post from the hours still pending rollup before deleting its HLLs, since a
+     * rollup would otherwise recreate an empty lifetime HLL for it. Older daily HLLs expire.
+     */
+    @Override
+    public void discard(UUID postId) {
+        long hour = currentHour();
+        byte[] member = bytes(postId.toString());
+        redisService.executePipelined(connection -> {
+            for (long h = hour; h >= hour - pendingHours; h--) {
+                connection.setCommands().sRem(bytes(touchedKey(h)), member);
+                connection.keyCommands().del(bytes(hourlyKey(h, postId)));
+            }
+            connection.keyCommands().del(bytes(dailyKey(hour * HOUR_SECONDS / DAY_SECONDS, postId)),
+                    bytes(lifetimeKey(postId)));
+            return null;
+        });
+    }
+
+    /**
+     * Rolls up each finished hour still within the pending window that no instance has
+     * completed; a claim expires, so an hour whose rollup died is retried.
+     */
+    @Scheduled(fixedDelayString = "${app.views.rollup-interval-ms:300000}")
+    public void rollup() {
+        long hour = currentHour();
+        for (long h = hour - pendingHours; h < hour; h++) {
+            if (redisService.exists(KEY_PREFIX + "rolled:" + h)
+                    || !redisService.setIfAbsent(KEY_PREFIX + "rolling:" + h, "1", Duration.ofMinutes(10))) {
+                continue;
+            }
+            try {
+                long rolledHour = h;
+                rollupTimer.record(() -> rollupHour(rolledHour));
+                redisService.setString(KEY_PREFIX + "rolled:" + h, "1", hourlyTtl);
+            } catch (RuntimeException e) {
+                log.warn("View rollup for hour {} failed: {}", h, e.getMessage());
+            } finally {
+                redisService.delete(KEY_PREFIX + "rolling:" + h);
+            }
+        }
+    }
+
+    private void rollupHour(long hour) {
+        long day = hour * HOUR_SECONDS / DAY_SECONDS;
+        redisService.sScan(touchedKey(hour), ROLLUP_BATCH_SIZE, postIds -> {
+            redisService.executePipelined(connection -> {
+                for (String postId : postIds) {
+                    byte[] hourlyKey = bytes(hourlyKey(hour, postId));
+                    byte[] dailyKey = bytes(dailyKey(day, postId));
+                    connection.hyperLogLogCommands().pfMerge(dailyKey, dailyKey, hourlyKey);
+                    connection.keyCommands().expire(dailyKey, dailyTtl.toSeconds());
+                    byte[] lifetimeKey = bytes(lifetimeKey(postId));
+                    connection.hyperLogLogCommands().pfMerge(lifetimeKey, lifetimeKey, hourlyKey);
+                }
+                return null;
+            });
+            rolledUpPosts.increment(postIds.size());
+        });
+    }
+
+    private static long currentHour() {
+        return Instant.now().getEpochSecond() / HOUR_SECONDS;
+    }
+
+    private static String hourlyKey(long hour, Object postId) {
+        return KEY_PREFIX + "h:" + hour + ":" + postId;
+    }
+
+    private static String dailyKey(long day, Object postId) {
+        return KEY_PREFIX + "d:" + day + ":" + postId;
+    }
+
+    private static String lifetimeKey(Object postId) {
+        return KEY_PREFIX + "all:" + postId;
+    }
+
+    private static String touchedKey(long hour) {
+        return KEY_PREFIX + "touched:" + hour;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,262 @@
+package app.service.impl;
+
+import app.dto.TrendingHashtagDto;
+import app.service.TrendingService;
+import common.service.RedisService;
+import common.util.CountMinSketch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Trending hashtags over a sliding window of one-minute slices.
+ * <p>
+ * Each instance counts the hashtags it consumes into a Count-Min Sketch for the current minute
+ * and keeps the slice's heaviest candidates. When the minute ends the slice is published as a
+ * field of the Redis hash {@code trending:hashtags:<minute>}, keyed by instance. Every instance
+ * then sums all instances' slices per minute into a local ring, adding the newest minute to a
+ * window sketch and subtracting the one that fell out, and ranks the window's candidates into
+ * a top-K snapshot that reads return as is.
+ * <p>
+ * Memory is fixed by the sketch shape, the window length and the candidate cap, whatever the
+ * number of distinct hashtags.
+ */
+@Slf4j
+@Service
+public class TrendingServiceImpl implements TrendingService {
+
+    private static final String KEY_PREFIX = "trending:hashtags:";
+    private static final char SEPARATOR = '|';
+
+    private final RedisService redisService;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final int width;
+    private final int depth;
+    private final int windowMinutes;
+    private final int topK;
+    private final int maxCandidates;
+
+    private final Object sliceLock = new Object();
+    private Slice current;
+
+    private final Slice[] ring;
+    private final CountMinSketch window;
+    private long lastLoadedMinute = -1;
+    private volatile List<TrendingHashtagDto> snapshot = List.of();
+
+    private final Counter recorded;
+    private final Timer aggregateTimer;
+
+    public TrendingServiceImpl(RedisService redisService,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.trending.sketch-width:2048}") int width,
+                               @Value("${app.trending.sketch-depth:4}") int depth,
+                               @Value("${app.trending.window-minutes:60}") int windowMinutes,
+                               @Value("${app.trending.top-k:50}") int topK,
+                               @Value("${app.trending.candidates-per-slice:200}") int maxCandidates) {
+        this.redisService = redisService;
+        this.width = width;
+        this.depth = depth;
+        this.windowMinutes = windowMinutes;
+        this.topK = topK;
+        this.maxCandidates = maxCandidates;
+        this.current = new Slice(-1, new CountMinSketch(width, depth), new HashMap<>());
+        this.ring = new Slice[windowMinutes];
+        this.window = new CountMinSketch(width, depth);
+
+        this.recorded = Counter.builder("post.trending.hashtags.recorded")
+                .register(meterRegistry);
+        this.aggregateTimer = Timer.builder("post.trending.aggregate")
+                .description("Time to merge published slices and rank the window")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void record(Collection<String> hashtags) {
+        synchronized (sliceLock) {
+            for (String hashtag : hashtags) {
+                long estimate = current.sketch().add(hashtag, 1);
+                current.candidates().put(hashtag, estimate);
+            }
+            if (current.candidates().size() > maxCandidates * 2) {
+                prune(current.candidates(), maxCandidates);
+            }
+        }
+        recorded.increment(hashtags.size());
+    }
+
+    @Override
+    public List<TrendingHashtagDto> getTrendingHashtags(int limit) {
+        List<TrendingHashtagDto> top = snapshot;
+        return top.subList(0, Math.max(0, Math.min(limit, top.size())));
+    }
+
+    /**
+     * Publishes the minute that just ended. Posts consumed around the boundary may land in
+     * the next slice, which only shifts them by a minute.
+     */
+    @Scheduled(cron = "0 * * * * *")
+    public void publish() {
+        Slice finished;
+        synchronized (sliceLock) {
+            finished = current;
+            current = new Slice(-1, new CountMinSketch(width, depth), new HashMap<>());
+        }
+        if (finished.sketch().getTotal() == 0) {
+            return;
+        }
+        prune(finished.candidates(), maxCandidates);
+        String value = Base64.getEncoder().encodeToString(finished.sketch().toBytes())
+                + SEPARATOR + String.join(",", finished.candidates().keySet());
+        try {
+            redisService.hSetAll(Map.of(key(currentMinute() - 1), Map.of(instanceId, value)),
+                    Duration.ofMinutes(windowMinutes + 5L));
+        } catch (RuntimeException e) {
+            log.warn("Could not publish trending slice: {}", e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        aggregate();
+    }
+
+    /**
+     * Runs after every instance has published; the previous minute is reloaded too, so a
+     * slice published late is still counted.
+     */
+    @Scheduled(cron = "${app.trending.aggregate-cron:15 * * * * *}")
+    public synchronized void aggregate() {
+        long latest = currentMinute() - 1;
+        long first = Math.max(latest - windowMinutes + 1,
+                lastLoadedMinute < 0 ? Long.MIN_VALUE : lastLoadedMinute - 1);
+
+        List<Long> minutes = new ArrayList<>();
+        for (long minute = first; minute <= latest; minute++) {
+            minutes.add(minute);
+        }
+        try {
+            aggregateTimer.record(() -> {
+                List<Map<String, String>> hashes = redisService.hGetAllStrings(
+                        minutes.stream().map(TrendingServiceImpl::key).toList());
+                for (int i = 0; i < minutes.size(); i++) {
+                    replace(minutes.get(i), merge(minutes.get(i), hashes.get(i)));
+                }
+                // Drop slots for minutes that have left the window
+                for (int i = 0; i < ring.length; i++) {
+                    if (ring[i] != null && ring[i].minute() <= latest - windowMinutes) {
+                        window.subtract(ring[i].sketch());
+                        ring[i] = null;
+                    }
+                }
+                snapshot = rank();
+            });
+            lastLoadedMinute = latest;
+        } catch (RuntimeException e) {
+            log.warn("Could not aggregate trending hashtags: {}", e.getMessage());
+        }
+    }
+
+    private Slice merge(long minute, Map<String, String> published) {
+        CountMinSketch sketch = new CountMinSketch(width, depth);
+        Map<String, Long> candidates = new HashMap<>();
+        published.values().forEach(value -> {
+            int separator = value.indexOf(SEPARATOR);
+            try {
+                sketch.merge(CountMinSketch.fromBytes(Base64.getDecoder().decode(value.substring(0, separator))));
+            } catch (RuntimeException e) {
+                // Another sketch shape, e.g. during a rolling config change
+                log.debug("Skipping trending slice for minute {}: {}", minute, e.getMessage());
+                return;
+            }
+            String tags = value.substring(separator + 1);
+            if (!tags.isEmpty()) {
+                for (String tag : tags.split(",")) {
+                    candidates.put(tag, 0L);
+                }
+            }
+        });
+        return new Slice(minute, sketch, candidates);
+    }
+
+    private void replace(long minute, Slice slice) {
+        int index = (int) Math.floorMod(minute, (long) ring.length);
+        Slice old = ring[index];
+        if (old != null) {
+            window.subtract(old.sketch());
+        }
+        window.merge(slice.sketch());
+        ring[index] = slice;
+    }
+
+    /**
+     * Estimates each candidate against the whole window and keeps the K largest in a min-heap.
+     */
+    private List<TrendingHashtagDto> rank() {
+        Set<String> candidates = new HashSet<>();
+        for (Slice slice : ring) {
+            if (slice != null) {
+                candidates.addAll(slice.candidates().keySet());
+            }
+        }
+        PriorityQueue<TrendingHashtagDto> heap =
+                new PriorityQueue<>(Comparator.comparingLong(TrendingHashtagDto::getCount));
+        for (String candidate : candidates) {
+            long count = window.estimate(candidate);
+            if (count <= 0) {
+                continue;
+            }
+            if (heap.size() < topK) {
+                heap.add(new TrendingHashtagDto(candidate, count));
+            } else if (count > heap.peek().getCount()) {
+                heap.poll();
+                heap.add(new TrendingHashtagDto(candidate, count));
+            }
+        }
+        List<TrendingHashtagDto> top = new ArrayList<>(heap);
+        top.sort(Comparator.comparingLong(TrendingHashtagDto::getCount).reversed());
+        return List.copyOf(top);
+    }
+
+    private static void prune(Map<String, Long> candidates, int keep) {
+        if (candidates.size() <= keep) {
+            return;
+        }
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(candidates.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        for (Map.Entry<String, Long> entry : entries.subList(keep, entries.size())) {
+            candidates.remove(entry.getKey());
+        }
+    }
+
+    private static long currentMinute() {
+        return Instant.now().getEpochSecond() / 60;
+    }
+
+    private static String key(long minute) {
+        return KEY_PREFIX + minute;
+    }
+
+    private record Slice(long minute, CountMinSketch sketch, Map<String, Long> candidates) {
+    }
+}
@@ -0,0 +1,73 @@
+package app.util;
+
+import common.exception.BusinessException;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque timeline cursors: the {@code (createdAt, id)} of the last post on a page, or the
+ * {@code (score, member)} for Redis-backed feeds, base64url encoded so clients treat it as a
+ * token rather than building their own.
+ */
+public final class CursorCodec {
+
+    private static final char SEPARATOR = '|';
+
+    private CursorCodec() {
+    }
+
+    public record Position(LocalDateTime createdAt, UUID id) {
+    }
+
+    public static String encode(LocalDateTime createdAt, UUID id) {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * A feed position; {@code member} is null for cursors issued before members were encoded,
+     * which resume strictly below the score.
+     */
+    public record ScorePosition(double score, String member) {
+    }
+
+    public static String encodeScore(double score, String member) {
+        String raw = Double.toString(score) + SEPARATOR + member;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ScorePosition decodeScore(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                return new ScorePosition(Double.parseDouble(raw), null);
+            }
+            String member = raw.substring(separator + 1);
+            UUID.fromString(member);
+            return new ScorePosition(Double.parseDouble(raw.substring(0, separator)), member);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Invalid cursor", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    public static Position decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Missing separator");
+            }
+            return new Position(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessException("Invalid cursor", HttpStatus.BAD_REQUEST);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package app.search;
+
+import app.dto.PostRowView;
+import common.constant.Visibility;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Indexing throughput and query latency of {@link PostSearchIndex} over synthetic posts.
+ * Content is drawn from a Zipf-distributed vocabulary, so common, mid-frequency and rare
+ * terms behave like they would on real posts.
+ * <p>
+ * Run with {@code ./gradlew :post-service:searchBenchmark -Pposts=10000000}; the index is
+ * written to a temporary directory unless {@code -PindexDir=...} is given, and deleted after.
+ */
+public class PostSearchIndexBenchmark {
+
+    private static final int VOCABULARY = 50_000;
+    private static final int USERS = 1_000_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int WARMUP_QUERIES = 1_000;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private final long posts;
+    private final int queries;
+    private final double[] cumulative = new double[VOCABULARY];
+
+    private PostSearchIndexBenchmark(long posts, int queries) {
+        this.posts = posts;
+        this.queries = queries;
+        double sum = 0;
+        for (int rank = 0; rank < VOCABULARY; rank++) {
+            sum += 1.0 / (rank + 1);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < VOCABULARY; rank++) {
+            cumulative[rank] /= sum;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        long posts = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        Path dir = args.length > 2 && !args[2].isBlank()
+                ? Files.createDirectories(Path.of(args[2]))
+                : Files.createTempDirectory("post-index-bench");
+        try {
+            new PostSearchIndexBenchmark(posts, queries).run(dir);
+        } finally {
+            if (args.length <= 2 || args[2].isBlank()) {
+                delete(dir);
+            }
+        }
+    }
+
+    private void run(Path dir) throws IOException {
+        PostSearchIndex index = new PostSearchIndex(dir, DataSize.ofMegabytes(256));
+        try {
+            long start = System.nanoTime();
+            long indexed = index.rebuild(LongStream.range(0, posts).mapToObj(this::row));
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Indexed %,d posts in %.1f s (%,.0f posts/s), %,d MB on disk%n",
+                    indexed, seconds, indexed / seconds, DataSize.ofBytes(sizeOf(dir)).toMegabytes());
+
+            measure(index, "common term", random -> word(random.nextInt(10)));
+            measure(index, "mid term", random -> word(500 + random.nextInt(500)));
+            measure(index, "rare term", random -> word(20_000 + random.nextInt(20_000)));
+            measure(index, "two terms", random -> word(random.nextInt(100)) + " " + word(random.nextInt(1_000)));
+            measureDeepPaging(index, 10);
+        } finally {
+            index.close();
+        }
+    }
+
+    private void measure(PostSearchIndex index, String name, Function<SplittableRandom, String> query) {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < WARMUP_QUERIES; i++) {
+            index.search(user(random.nextInt(USERS)), query.apply(random), null, PAGE_SIZE + 1);
+        }
+        long[] nanos = new long[queries];
+        long hits = 0;
+        for (int i = 0; i < queries; i++) {
+            UUID viewer = user(random.nextInt(USERS));
+            String text = query.apply(random);
+            long start = System.nanoTime();
+            hits += index.search(viewer, text, null, PAGE_SIZE + 1).size();
+            nanos[i] = System.nanoTime() - start;
+        }
+        report(name, nanos, hits);
+    }
+
+    /**
+     * Follows the cursor through consecutive pages of a common term, which is where
+     * {@code searchAfter} has to skip the most matches.
+     */
+    private void measureDeepPaging(PostSearchIndex index, int pages) {
+        SplittableRandom random = new SplittableRandom(7);
+        int rounds = Math.max(1, queries / pages);
+        long[] nanos = new long[rounds * pages];
+        long hits = 0;
+        int n = 0;
+        for (int round = 0; round < rounds; round++) {
+            UUID viewer = user(random.nextInt(USERS));
+            String text = word(random.nextInt(10));
+            PostSearchIndex.Hit after = null;
+            for (int page = 0; page < pages; page++) {
+                long start = System.nanoTime();
+                List<PostSearchIndex.Hit> result = index.search(viewer, text, after, PAGE_SIZE);
+                nanos[n++] = System.nanoTime() - start;
+                hits += result.size();
+                if (result.isEmpty()) {
+                    break;
+                }
+                after = result.get(result.size() - 1);
+            }
+        }
+        report("paging x" + pages, Arrays.copyOf(nanos, n), hits);
+    }
+
+    private static void report(String name, long[] nanos, long hits) {
+        Arrays.sort(nanos);
+        System.out.printf("%-12s %,7d queries  avg hits %5.1f  p50 %7.3f ms  p95 %7.3f ms  p99 %7.3f ms  max %7.3f ms%n",
+                name, nanos.length, (double) hits / Math.max(1, nanos.length),
+                percentile(nanos, 0.50), percentile(nanos, 0.95), percentile(nanos, 0.99),
+                nanos.length > 0 ? nanos[nanos.length - 1] / 1e6 : 0);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))] / 1e6;
+    }
+
+    private PostRowView row(long i) {
+        SplittableRandom random = new SplittableRandom(i);
+        int words = 10 + random.nextInt(30);
+        StringBuilder content = new StringBuilder(words * 8);
+        for (int w = 0; w < words; w++) {
+            content.append(word(zipf(random))).append(' ');
+        }
+        int roll = random.nextInt(100);
+        Visibility visibility = roll < 80 ? Visibility.PUBLIC : roll < 95 ? Visibility.FRIENDS : Visibility.PRIVATE;
+        LocalDateTime createdAt = EPOCH.plusSeconds(i);
+        return new Row(new UUID(1L, i), user(random.nextInt(USERS)), content.toString(), visibility, createdAt);
+    }
+
+    private int zipf(SplittableRandom random) {
+        int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+        return rank >= 0 ? rank : Math.min(VOCABULARY - 1, -rank - 1);
+    }
+
+    private static String word(int rank) {
+        return "w" + Integer.toString(rank, 36);
+    }
+
+    private static UUID user(int i) {
+        return new UUID(2L, i);
+    }
+
+    private static long sizeOf(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private record Row(UUID id, UUID userId, String content, Visibility visibility,
+                       LocalDateTime createdAt) implements PostRowView {
+
+        @Override
+        public UUID getId() {
+            return id;
+        }
+
+        @Override
+        public UUID getUserId() {
+            return userId;
+        }
+
+        @Override
+        public String getContent() {
+            return content;
+        }
+
+        @Override
+        public Boolean getIsEdited() {
+            return false;
+        }
+
+        @Override
+        public Visibility getVisibility() {
+            return visibility;
+        }
+
+        @Override
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        @Override
+        public LocalDateTime getUpdatedAt() {
+            return createdAt;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package app.consumer;
+
+import app.service.UserService;
+import common.event.UserProfileUpdatedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class UserProfileListener {
+
+    private final UserService userService;
+
+    /**
+     * A group per instance, so every replica sees every update and drops its local copy.
+     */
+    @KafkaListener(topics = "user.profile-updated", groupId = "user-service.profile-cache.${random.uuid}")
+    public void handleProfileUpdated(UserProfileUpdatedEvent event) {
+        userService.evictProfile(event.getUserId());
+    }
+}
@@ -0,0 +1,39 @@
+package app.consumer;
+
+import app.service.AvailabilityService;
+import common.event.UserRegisteredEvent;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class UserRegisteredListener implements ConsumerSeekAware {
+
+    private final AvailabilityService availabilityService;
+
+    /**
+     * A group per instance, so every replica's availability filter learns identifiers taken
+     * on the others. The group id is stable per host, so restarts reuse it rather than leaving
+     * a new group behind each time. The registering instance sees its own users twice, which
+     * is harmless since identifiers are never removed from the filter.
+     */
+    @KafkaListener(topics = "user.registered", groupId = "user-service.availability.${app.availability.instance-id}")
+    public void handleUserRegistered(UserRegisteredEvent event) {
+        availabilityService.register(event.getUserName(), event.getEmail());
+    }
+
+    /**
+     * Committed offsets are ignored: the filter is rebuilt on every start, so the topic is
+     * replayed from the time the rebuild covers, whatever the group last read.
+     */
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToTimestamp(assignments.keySet(), availabilityService.getReplayFrom());
+        availabilityService.markReplaying();
+    }
+}
@@ -1,24 +1,44 @@
 package app.controller;
 
+import app.dto.AvailabilityResponseDto;
 import app.dto.LoginRequestDto;
 import app.dto.LoginResponseDto;
+import app.dto.LogoutRequestDto;
 import app.dto.RegisterRequestDto;
 import app.service.AuthService;
+import app.service.AvailabilityService;
+import common.annotation.CurrentUserId;
 import common.dto.ApiResponse;
+import common.exception.BusinessException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/auth")
 public class AuthController {
 
     private final AuthService authService;
+    private final AvailabilityService availabilityService;
 
     @PostMapping("/register")
-    public ApiResponse<String> register(@Valid @RequestBody RegisterRequestDto registerRequestDto) {
-        return ApiResponse.success(authService.register(registerRequestDto));
+    public CompletableFuture<ApiResponse<String>> register(@Valid @RequestBody RegisterRequestDto registerRequestDto) {
+        return authService.register(registerRequestDto).thenApply(message -> ApiResponse.success(message));
+    }
+
+    @GetMapping("/availability")
+    public ApiResponse<AvailabilityResponseDto> availability(@RequestParam(required = false) String username,
+                                                             @RequestParam(required = false) String email) {
+        if (username == null && email == null) {
+            throw new BusinessException("Username or email is required", HttpStatus.BAD_REQUEST);
+        }
+        return ApiResponse.success(availabilityService.check(username, email));
     }
 
     @GetMapping("/verify")
@@ -27,7 +47,16 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ApiResponse<LoginResponseDto> login(@Valid @RequestBody LoginRequestDto loginRequestDto) {
-        return ApiResponse.success(authService.login(loginRequestDto));
+    public CompletableFuture<ApiResponse<LoginResponseDto>> login(@Valid @RequestBody LoginRequestDto loginRequestDto) {
+        return authService.login(loginRequestDto).thenApply(ApiResponse::success);
+    }
+
+    @PostMapping("/logout")
+    public ApiResponse<String> logout(@CurrentUserId UUID userId,
+                                      @RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+                                      @RequestBody(required = false) LogoutRequestDto logoutRequestDto) {
+        String accessToken = authorization.startsWith("Bearer ") ? authorization.substring(7) : authorization;
+        String refreshToken = logoutRequestDto != null ? logoutRequestDto.getRefreshToken() : null;
+        return ApiResponse.success(authService.logout(userId, accessToken, refreshToken));
     }
 }
@@ -1,13 +1,39 @@
 package app.controller;
 
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import app.dto.UpdateProfileRequestDto;
+import app.service.PresenceService;
+import app.service.UserSearchService;
+import app.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import common.annotation.CurrentUserId;
+import common.dto.ApiResponse;
+import common.dto.IdBatchRequestDto;
+import common.dto.UserProfileDto;
+import common.util.ETags;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
 
 @RestController
+@RequiredArgsConstructor
 @RequestMapping("/users")
 public class UserController {
 
+    private final UserService userService;
+    private final UserSearchService userSearchService;
+    private final PresenceService presenceService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.http-cache.profile-shared-max-age:5m}")
+    private Duration profileSharedMaxAge;
+
     @GetMapping
     public String test() {
         return "Get users Testing...!!";
@@ -17,4 +43,56 @@ public class UserController {
     public String retest() {
         return "Get profile Testing...!!";
     }
+
+    /**
+     * Prefix search over usernames and full names, most popular first.
+     */
+    @GetMapping("/search")
+    public ApiResponse<List<UserProfileDto>> search(@RequestParam("q") String query,
+                                                    @RequestParam(defaultValue = "10") int limit) {
+        return ApiResponse.success(userSearchService.search(query, limit));
+    }
+
+    /**
+     * Cacheable by the gateway until the profile changes; clients revalidate with the ETag.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<UserProfileDto>> getProfile(@PathVariable UUID id) {
+        UserProfileDto profile = userService.getProfile(id);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ZERO).sMaxAge(profileSharedMaxAge).cachePublic())
+                .eTag(ETags.of(objectMapper, profile))
+                .body(ApiResponse.success(profile));
+    }
+
+    /**
+     * Profiles in request order; unknown ids are skipped.
+     */
+    @PostMapping("/batch")
+    public ApiResponse<List<UserProfileDto>> getProfiles(@Valid @RequestBody IdBatchRequestDto idBatchRequestDto) {
+        return ApiResponse.success(userService.getProfilesInOrder(idBatchRequestDto.getIds()));
+    }
+
+    /**
+     * Clients call this periodically while active, more often than the presence bucket.
+     */
+    @PostMapping("/me/heartbeat")
+    public ApiResponse<String> heartbeat(@CurrentUserId UUID userId) {
+        presenceService.heartbeat(userId);
+        return ApiResponse.success("OK");
+    }
+
+    /**
+     * Which of the given users are online; users hiding their status are never included.
+     */
+    @PostMapping("/presence")
+    public ApiResponse<List<UUID>> presence(@Valid @RequestBody IdBatchRequestDto idBatchRequestDto) {
+        return ApiResponse.success(presenceService.findOnline(idBatchRequestDto.getIds()));
+    }
+
+    @PutMapping("/me")
+    public ApiResponse<UserProfileDto> updateProfile(@CurrentUserId UUID userId,
+                                                     @Valid @RequestBody UpdateProfileRequestDto updateProfileRequestDto) {
+        return ApiResponse.success(userService.updateProfile(userId, updateProfileRequestDto));
+    }
 }
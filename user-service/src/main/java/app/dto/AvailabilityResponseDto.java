@@ -0,0 +1,15 @@
+package app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityResponseDto {
+    private Boolean usernameAvailable;
+    private Boolean emailAvailable;
+}
@@ -0,0 +1,9 @@
+package app.dto;
+
+import lombok.Data;
+
+@Data
+public class LogoutRequestDto {
+
+    private String refreshToken;
+}
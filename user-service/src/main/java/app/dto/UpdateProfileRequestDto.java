@@ -0,0 +1,23 @@
+package app.dto;
+
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class UpdateProfileRequestDto {
+
+    @Size(max = 255, message = "Full name is too long")
+    private String fullName;
+
+    @Size(max = 255, message = "Profile picture url is too long")
+    private String profilePictureUrl;
+
+    @Size(max = 5000, message = "Bio is too long")
+    private String bio;
+
+    @Size(max = 255, message = "Location is too long")
+    private String location;
+
+    @Size(max = 255, message = "Website is too long")
+    private String website;
+}
@@ -0,0 +1,23 @@
+package app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * The columns login needs, read without hydrating the rest of the user.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserCredentialDto {
+    private UUID id;
+    private String username;
+    private String password;
+    private Boolean isActive;
+    private Boolean isVerified;
+}
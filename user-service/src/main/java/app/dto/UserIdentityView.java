@@ -0,0 +1,9 @@
+package app.dto;
+
+/**
+ * The two columns that must be unique across users.
+ */
+public interface UserIdentityView {
+    String getUsername();
+    String getEmail();
+}
@@ -0,0 +1,13 @@
+package app.dto;
+
+import java.util.UUID;
+
+/**
+ * The columns the people-search index is built from.
+ */
+public interface UserSearchView {
+    UUID getId();
+    String getUsername();
+    String getFullName();
+    Double getPopularityScore();
+}
@@ -1,6 +1,6 @@
 package app.entity;
 
-import lombok.RequiredArgsConstructor;
+import app.dto.UserCredentialDto;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -8,13 +8,20 @@ import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
-@RequiredArgsConstructor
 public class CustomUserDetails implements UserDetails {
 
-    private final User user;
+    private final UUID userId;
+
+    public CustomUserDetails(User user) {
+        this.userId = user.getId();
+    }
+
+    public CustomUserDetails(UserCredentialDto credential) {
+        this.userId = credential.getId();
+    }
 
     public UUID getUserId() {
-        return user.getId();
+        return userId;
     }
 
     @Override
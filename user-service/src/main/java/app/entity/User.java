@@ -2,6 +2,7 @@ package app.entity;
 
 import common.constant.Gender;
 import common.constant.PrivacyLevel;
+import common.id.UuidV7;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -18,7 +19,7 @@ import java.util.UUID;
 public class User extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(nullable = false, unique = true, length = 255)
@@ -59,6 +60,12 @@ public class User extends BaseEntity {
     @Builder.Default
     private Boolean isActive = true;
 
+    /**
+     * Ranking signal for people search; higher ranks first.
+     */
+    @Builder.Default
+    private Double popularityScore = 0.0;
+
     @OneToOne(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private UserSetting userSetting;
 }
@@ -1,14 +1,60 @@
 package app.repository;
 
+import app.dto.UserCredentialDto;
+import app.dto.UserIdentityView;
+import app.dto.UserSearchView;
 import app.entity.User;
+import common.dto.UserProfileDto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
     Optional<User> findByUsername(String username);
+
+    /**
+     * Credential columns only, via the unique index on username; skips the user_settings join.
+     */
+    @Query("SELECT new app.dto.UserCredentialDto(u.id, u.username, u.password, u.isActive, u.isVerified) " +
+            "FROM User u WHERE u.username = :username")
+    Optional<UserCredentialDto> findCredentialByUsername(@Param("username") String username);
+
+    @Query("SELECT new common.dto.UserProfileDto(u.id, u.username, u.fullName, u.profilePictureUrl, u.bio, " +
+            "u.isVerified, u.isPrivate) FROM User u WHERE u.id IN :ids")
+    List<UserProfileDto> findProfilesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Users holding either identifier, at most two rows; one query in place of two entity loads.
+     */
+    @Query("SELECT u.username AS username, u.email AS email FROM User u " +
+            "WHERE u.username = :username OR u.email = :email")
+    List<UserIdentityView> findIdentityConflicts(@Param("username") String username, @Param("email") String email);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.username AS username, u.email AS email FROM User u")
+    Stream<UserIdentityView> streamAllIdentities();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.id AS id, u.username AS username, u.fullName AS fullName, " +
+            "u.popularityScore AS popularityScore FROM User u")
+    Stream<UserSearchView> streamSearchEntries();
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") UUID id, @Param("password") String password);
 }
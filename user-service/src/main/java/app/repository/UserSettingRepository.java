@@ -0,0 +1,21 @@
+package app.repository;
+
+import app.entity.UserSetting;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface UserSettingRepository extends JpaRepository<UserSetting, UUID> {
+
+    /**
+     * Users among the given ones who have hidden their online status; users without settings are visible.
+     */
+    @Query("SELECT s.userId FROM UserSetting s WHERE s.userId IN :ids AND s.showOnlineStatus = false")
+    List<UUID> findIdsHidingOnlineStatus(@Param("ids") Collection<UUID> ids);
+}
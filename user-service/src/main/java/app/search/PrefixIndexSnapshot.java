@@ -0,0 +1,207 @@
+package app.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * Immutable prefix index over (term, user) postings.
+ * <p>
+ * Terms are stored as one sorted UTF-8 blob with offsets instead of a String per term, so a
+ * posting costs roughly its term bytes plus 16 bytes of arrays. A prefix maps to a contiguous
+ * range found by binary search; a max segment tree over posting scores then yields that range
+ * in descending score order, popping one posting per O(log n) step, so top-K never scans the
+ * whole range.
+ */
+final class PrefixIndexSnapshot {
+
+    static final PrefixIndexSnapshot EMPTY = build(List.of(), new long[0], new long[0], new float[0]);
+
+    private final byte[] termData;
+    private final int[] termOffsets;
+    private final int[] postingDocs;
+    private final long[] docMostSigBits;
+    private final long[] docLeastSigBits;
+    private final float[] docScores;
+    private final int size;
+    private final int leafBase;
+    private final int[] tree;
+
+    record Posting(byte[] term, int doc) {
+    }
+
+    interface Visitor {
+        /**
+         * @return false to stop the traversal
+         */
+        boolean visit(UUID userId, String term, float score);
+    }
+
+    private PrefixIndexSnapshot(byte[] termData, int[] termOffsets, int[] postingDocs,
+                                long[] docMostSigBits, long[] docLeastSigBits, float[] docScores) {
+        this.termData = termData;
+        this.termOffsets = termOffsets;
+        this.postingDocs = postingDocs;
+        this.docMostSigBits = docMostSigBits;
+        this.docLeastSigBits = docLeastSigBits;
+        this.docScores = docScores;
+        this.size = postingDocs.length;
+
+        int base = 1;
+        while (base < size) {
+            base <<= 1;
+        }
+        this.leafBase = base;
+        this.tree = new int[2 * base];
+        Arrays.fill(tree, -1);
+        for (int i = 0; i < size; i++) {
+            tree[base + i] = i;
+        }
+        for (int node = base - 1; node >= 1; node--) {
+            tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * @param postings  any order; sorted here
+     * @param docScores score per doc index, as referenced by postings
+     */
+    static PrefixIndexSnapshot build(List<Posting> postings, long[] docMostSigBits, long[] docLeastSigBits,
+                                     float[] docScores) {
+        Posting[] sorted = postings.toArray(Posting[]::new);
+        Arrays.sort(sorted, (a, b) -> Arrays.compareUnsigned(a.term(), b.term()));
+
+        int totalBytes = 0;
+        for (Posting posting : sorted) {
+            totalBytes += posting.term().length;
+        }
+        byte[] termData = new byte[totalBytes];
+        int[] termOffsets = new int[sorted.length + 1];
+        int[] postingDocs = new int[sorted.length];
+        int offset = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            byte[] term = sorted[i].term();
+            System.arraycopy(term, 0, termData, offset, term.length);
+            termOffsets[i] = offset;
+            postingDocs[i] = sorted[i].doc();
+            offset += term.length;
+        }
+        termOffsets[sorted.length] = offset;
+        return new PrefixIndexSnapshot(termData, termOffsets, postingDocs, docMostSigBits, docLeastSigBits, docScores);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Visits every posting whose term starts with the prefix, highest score first.
+     */
+    void visitByScore(String prefix, Visitor visitor) {
+        byte[] key = prefix.getBytes(StandardCharsets.UTF_8);
+        int from = lowerBound(key);
+        int to = upperBound(key, from);
+        if (from >= to) {
+            return;
+        }
+
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> Float.compare(score(b[2]), score(a[2])));
+        ranges.add(new int[]{from, to, argMax(from, to)});
+        while (!ranges.isEmpty()) {
+            int[] range = ranges.poll();
+            int position = range[2];
+            int doc = postingDocs[position];
+            UUID userId = new UUID(docMostSigBits[doc], docLeastSigBits[doc]);
+            if (!visitor.visit(userId, term(position), docScores[doc])) {
+                return;
+            }
+            if (range[0] < position) {
+                ranges.add(new int[]{range[0], position, argMax(range[0], position)});
+            }
+            if (position + 1 < range[1]) {
+                ranges.add(new int[]{position + 1, range[1], argMax(position + 1, range[1])});
+            }
+        }
+    }
+
+    private String term(int position) {
+        return new String(termData, termOffsets[position], termOffsets[position + 1] - termOffsets[position],
+                StandardCharsets.UTF_8);
+    }
+
+    private float score(int position) {
+        return position < 0 ? Float.NEGATIVE_INFINITY : docScores[postingDocs[position]];
+    }
+
+    private int better(int a, int b) {
+        if (a < 0) {
+            return b;
+        }
+        if (b < 0) {
+            return a;
+        }
+        return score(b) > score(a) ? b : a;
+    }
+
+    /**
+     * Position of the highest score in [from, to).
+     */
+    private int argMax(int from, int to) {
+        int best = -1;
+        for (int l = from + leafBase, r = to + leafBase; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                best = better(best, tree[l++]);
+            }
+            if ((r & 1) == 1) {
+                best = better(best, tree[--r]);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * First position whose term is not less than the key.
+     */
+    private int lowerBound(byte[] key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(mid, key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * First position from {@code from} whose term does not start with the key.
+     */
+    private int upperBound(byte[] key, int from) {
+        int low = from;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (startsWith(mid, key)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int compare(int position, byte[] key) {
+        return Arrays.compareUnsigned(termData, termOffsets[position], termOffsets[position + 1], key, 0, key.length);
+    }
+
+    private boolean startsWith(int position, byte[] key) {
+        int length = termOffsets[position + 1] - termOffsets[position];
+        return length >= key.length
+                && Arrays.equals(termData, termOffsets[position], termOffsets[position] + key.length, key, 0, key.length);
+    }
+}
@@ -0,0 +1,167 @@
+package app.search;
+
+import app.dto.UserSearchView;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory prefix index over usernames and full names, ranked by popularity.
+ * <p>
+ * The bulk of the index is an immutable {@link PrefixIndexSnapshot} rebuilt from the users
+ * table. Changes since the last rebuild go to a small sorted delta, and the changed users'
+ * current terms override whatever the snapshot still holds for them, so stale postings are
+ * filtered out at query time. A rebuild folds the delta back into a new snapshot.
+ */
+@Component
+public class UserSearchIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final char SEPARATOR = '\0';
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentHashMap<UUID, Revision> revisions = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Long> delta = new ConcurrentSkipListMap<>();
+
+    private volatile PrefixIndexSnapshot snapshot = PrefixIndexSnapshot.EMPTY;
+
+    private record Revision(Set<String> terms, float score, long sequence) {
+    }
+
+    private record Candidate(UUID userId, float score) {
+    }
+
+    /**
+     * Call after the change has committed, so a concurrent rebuild either reads it or keeps this entry.
+     */
+    public void upsert(UUID userId, String username, String fullName, Double popularityScore) {
+        long seq = sequence.incrementAndGet();
+        Set<String> terms = terms(username, fullName);
+        revisions.put(userId, new Revision(terms, score(popularityScore), seq));
+        for (String term : terms) {
+            delta.put(term + SEPARATOR + userId, seq);
+        }
+    }
+
+    /**
+     * Ids of the best-ranked users with a name or username word starting with the query.
+     */
+    public List<UUID> search(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        List<Candidate> candidates = new ArrayList<>();
+        Set<UUID> seen = new HashSet<>();
+
+        for (String key : delta.subMap(prefix, true, prefix + Character.MAX_VALUE, true).keySet()) {
+            int separator = key.lastIndexOf(SEPARATOR);
+            UUID userId = UUID.fromString(key.substring(separator + 1));
+            Revision revision = revisions.get(userId);
+            if (revision != null && revision.terms().contains(key.substring(0, separator)) && seen.add(userId)) {
+                candidates.add(new Candidate(userId, revision.score()));
+            }
+        }
+
+        int[] fromSnapshot = {0};
+        snapshot.visitByScore(prefix, (userId, term, score) -> {
+            Revision revision = revisions.get(userId);
+            if ((revision == null || revision.terms().contains(term)) && seen.add(userId)) {
+                candidates.add(new Candidate(userId, revision != null ? revision.score() : score));
+                fromSnapshot[0]++;
+            }
+            return fromSnapshot[0] < limit;
+        });
+
+        return candidates.stream()
+                .sorted(Comparator.comparingDouble(Candidate::score).reversed())
+                .limit(limit)
+                .map(Candidate::userId)
+                .toList();
+    }
+
+    /**
+     * Replaces the snapshot with one built from the given rows. Upserts made while the rows
+     * were being read are kept in the delta; everything older is now in the snapshot.
+     */
+    public void rebuild(Stream<UserSearchView> users) {
+        long startSequence = sequence.get();
+
+        List<PrefixIndexSnapshot.Posting> postings = new ArrayList<>();
+        long[] mostSigBits = new long[1024];
+        long[] leastSigBits = new long[1024];
+        float[] scores = new float[1024];
+        int count = 0;
+        for (UserSearchView user : (Iterable<UserSearchView>) users::iterator) {
+            if (count == scores.length) {
+                mostSigBits = Arrays.copyOf(mostSigBits, count * 2);
+                leastSigBits = Arrays.copyOf(leastSigBits, count * 2);
+                scores = Arrays.copyOf(scores, count * 2);
+            }
+            mostSigBits[count] = user.getId().getMostSignificantBits();
+            leastSigBits[count] = user.getId().getLeastSignificantBits();
+            scores[count] = score(user.getPopularityScore());
+            for (String term : terms(user.getUsername(), user.getFullName())) {
+                postings.add(new PrefixIndexSnapshot.Posting(term.getBytes(StandardCharsets.UTF_8), count));
+            }
+            count++;
+        }
+
+        snapshot = PrefixIndexSnapshot.build(postings, Arrays.copyOf(mostSigBits, count),
+                Arrays.copyOf(leastSigBits, count), Arrays.copyOf(scores, count));
+        revisions.values().removeIf(revision -> revision.sequence() <= startSequence);
+        delta.values().removeIf(seq -> seq <= startSequence);
+    }
+
+    public int size() {
+        return snapshot.size() + delta.size();
+    }
+
+    /**
+     * Lower case without diacritics, so "Nguyễn" is found by "nguyen".
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("")
+                .replace('đ', 'd')
+                .replace('Đ', 'D');
+        return WHITESPACE.matcher(stripped.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+    }
+
+    private static Set<String> terms(String username, String fullName) {
+        Set<String> terms = new LinkedHashSet<>();
+        String normalizedUsername = normalize(username);
+        if (!normalizedUsername.isEmpty()) {
+            terms.add(normalizedUsername);
+        }
+        String normalizedName = normalize(fullName);
+        if (!normalizedName.isEmpty()) {
+            terms.add(normalizedName);
+            terms.addAll(Arrays.asList(normalizedName.split(" ")));
+        }
+        return terms;
+    }
+
+    private static float score(Double popularityScore) {
+        return popularityScore != null ? popularityScore.floatValue() : 0f;
+    }
+}
@@ -5,8 +5,12 @@ import app.dto.LoginResponseDto;
 import app.dto.RegisterRequestDto;
 import app.dto.RegisterResponseDto;
 
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
 public interface AuthService {
-    String register(RegisterRequestDto registerRequestDto);
+    CompletableFuture<String> register(RegisterRequestDto registerRequestDto);
     String verify(String token);
-    LoginResponseDto login(LoginRequestDto loginRequestDto);
+    CompletableFuture<LoginResponseDto> login(LoginRequestDto loginRequestDto);
+    String logout(UUID userId, String accessToken, String refreshToken);
 }
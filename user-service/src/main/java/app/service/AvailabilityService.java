@@ -0,0 +1,19 @@
+package app.service;
+
+import app.dto.AvailabilityResponseDto;
+
+public interface AvailabilityService {
+    AvailabilityResponseDto check(String username, String email);
+    void register(String username, String email);
+
+    /**
+     * Epoch millis from which the filter relies on user.registered events instead of its
+     * startup scan; the listener replays the topic from there.
+     */
+    long getReplayFrom();
+
+    /**
+     * The listener has been assigned its partitions and positioned at {@link #getReplayFrom()}.
+     */
+    void markReplaying();
+}
@@ -0,0 +1,9 @@
+package app.service;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface PasswordHashingService {
+    CompletableFuture<String> encode(CharSequence rawPassword);
+    CompletableFuture<Boolean> matches(CharSequence rawPassword, String encodedPassword);
+    boolean upgradeEncoding(String encodedPassword);
+}
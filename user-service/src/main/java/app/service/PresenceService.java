@@ -0,0 +1,10 @@
+package app.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface PresenceService {
+    void heartbeat(UUID userId);
+    List<UUID> findOnline(Collection<UUID> userIds);
+}
@@ -0,0 +1,9 @@
+package app.service;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public interface TokenRevocationService {
+    void revokeToken(String tokenId, Instant expiration);
+    void revokeAllForUser(UUID userId);
+}
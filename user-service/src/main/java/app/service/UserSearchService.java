@@ -0,0 +1,10 @@
+package app.service;
+
+import common.dto.UserProfileDto;
+
+import java.util.List;
+
+public interface UserSearchService {
+    List<UserProfileDto> search(String query, int limit);
+    void rebuildIndex();
+}
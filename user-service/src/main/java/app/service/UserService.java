@@ -1,4 +1,17 @@
 package app.service;
 
+import app.dto.UpdateProfileRequestDto;
+import common.dto.UserProfileDto;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
 public interface UserService {
+    UserProfileDto getProfile(UUID userId);
+    Map<UUID, UserProfileDto> getProfiles(Collection<UUID> userIds);
+    List<UserProfileDto> getProfilesInOrder(List<UUID> userIds);
+    UserProfileDto updateProfile(UUID userId, UpdateProfileRequestDto updateProfileRequestDto);
+    void evictProfile(UUID userId);
 }
@@ -1,74 +1,117 @@
 package app.service.impl;
 
+import app.dto.AvailabilityResponseDto;
 import app.dto.LoginRequestDto;
 import app.dto.LoginResponseDto;
 import app.dto.RegisterRequestDto;
+import app.dto.UserCredentialDto;
 import app.entity.CustomUserDetails;
 import app.entity.User;
 import app.repository.UserRepository;
+import app.search.UserSearchIndex;
 import app.service.AuthService;
+import app.service.AvailabilityService;
+import app.service.PasswordHashingService;
+import app.service.TokenRevocationService;
 import app.util.JwtUtil;
 import app.util.RandomUtil;
 import common.event.UserRegisteredEvent;
 import common.exception.BusinessException;
+import common.outbox.OutboxService;
 import common.service.CacheService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuthServiceImpl implements AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final AvailabilityService availabilityService;
+    private final UserSearchIndex userSearchIndex;
     private final JwtUtil jwtUtil;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
     private final CacheService cacheService;
+    private final TokenRevocationService tokenRevocationService;
+    // Spring's task executor; database and Redis work after a hash must not hold a hashing thread
+    private final Executor applicationTaskExecutor;
+
+    @Value("${app.credential-cache.ttl:60s}")
+    private Duration credentialCacheTtl;
 
     @Override
-    public String register(RegisterRequestDto registerRequestDto) {
-        boolean isExistUsername = userRepository.findByUsername(registerRequestDto.getUsername()).isPresent();
-        if(isExistUsername){
+    public CompletableFuture<String> register(RegisterRequestDto registerRequestDto) {
+        AvailabilityResponseDto availability = availabilityService.check(
+                registerRequestDto.getUsername(), registerRequestDto.getEmail());
+        if(!availability.getUsernameAvailable()){
           throw new BusinessException("Username already existed", HttpStatus.BAD_REQUEST);
         }
 
-        boolean isExistEmail = userRepository.findByEmail(registerRequestDto.getEmail()).isPresent();
-        if(isExistEmail){
+        if(!availability.getEmailAvailable()){
             throw new BusinessException("Email already existed", HttpStatus.BAD_REQUEST);
         }
 
-        User user = User.builder()
-                .email(registerRequestDto.getEmail())
-                .username(registerRequestDto.getUsername())
-                .password(passwordEncoder.encode(registerRequestDto.getPassword()))
-                .build();
-
-        userRepository.save(user);
-
-        String verifyToken = RandomUtil.generateRandom();
-
-        UserRegisteredEvent event = UserRegisteredEvent.builder()
-                .userId(user.getId())
-                .email(user.getEmail())
-                .userName(user.getUsername())
-                .token(verifyToken)
-                .timestamp(LocalDateTime.now())
-                .build();
-
-        kafkaTemplate.send("user.registered", event);
-
-        String emailVerifyTokenKey = cacheService.buildKey("email", "verify", verifyToken);
-        cacheService.cache(emailVerifyTokenKey, user.getId(),  Duration.ofSeconds(60 * 15));
+        return passwordHashingService.encode(registerRequestDto.getPassword()).thenApplyAsync(encodedPassword -> {
+            User user = User.builder()
+                    .email(registerRequestDto.getEmail())
+                    .username(registerRequestDto.getUsername())
+                    .password(encodedPassword)
+                    .build();
+
+            String verifyToken = RandomUtil.generateRandom();
+
+            // The event commits with the user; the outbox relay publishes it to Kafka
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    userRepository.save(user);
+
+                    UserRegisteredEvent event = UserRegisteredEvent.builder()
+                            .userId(user.getId())
+                            .email(user.getEmail())
+                            .userName(user.getUsername())
+                            .token(verifyToken)
+                            .timestamp(LocalDateTime.now())
+                            .build();
+
+                    outboxService.publish("user.registered", user.getId().toString(), event);
+
+                    String emailVerifyTokenKey = cacheService.buildKey("email", "verify", verifyToken);
+                    cacheService.cache(emailVerifyTokenKey, user.getId(),  Duration.ofSeconds(60 * 15));
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Taken through another instance before its event reached this one's filter
+                throw alreadyExisted(registerRequestDto);
+            }
+            availabilityService.register(user.getUsername(), user.getEmail());
+            userSearchIndex.upsert(user.getId(), user.getUsername(), user.getFullName(), user.getPopularityScore());
+
+            return "Successfully registered, an email will be sent to your email address.";
+        }, applicationTaskExecutor);
+    }
 
-        return "Successfully registered, an email will be sent to your email address.";
+    private BusinessException alreadyExisted(RegisterRequestDto registerRequestDto) {
+        boolean usernameTaken = userRepository.findIdentityConflicts(registerRequestDto.getUsername(), null)
+                .stream()
+                .anyMatch(conflict -> registerRequestDto.getUsername().equals(conflict.getUsername()));
+        return new BusinessException(usernameTaken ? "Username already existed" : "Email already existed",
+                HttpStatus.BAD_REQUEST);
     }
 
     @Override
@@ -85,35 +128,101 @@ public class AuthServiceImpl implements AuthService {
         );
         user.setIsVerified(true);
         userRepository.save(user);
+        invalidateCredential(user.getUsername());
 
         return "Successfully verified!";
     }
 
     @Override
-    public LoginResponseDto login(LoginRequestDto loginRequestDto) {
-        User user = userRepository.findByUsername(loginRequestDto.getUsername()).orElseThrow(
-                () -> new BusinessException("Username not found", HttpStatus.BAD_REQUEST)
-        );
-
-        if(!passwordEncoder.matches(loginRequestDto.getPassword(), user.getPassword())){
-            throw new BusinessException("Wrong password", HttpStatus.BAD_REQUEST);
+    public CompletableFuture<LoginResponseDto> login(LoginRequestDto loginRequestDto) {
+        String credentialKey = cacheService.buildKey("credential", loginRequestDto.getUsername());
+        UserCredentialDto user = cacheService.cacheOrGet(credentialKey, UserCredentialDto.class,
+                () -> userRepository.findCredentialByUsername(loginRequestDto.getUsername()).orElse(null),
+                credentialCacheTtl);
+        if (user == null) {
+            throw new BusinessException("Username not found", HttpStatus.BAD_REQUEST);
         }
 
-        if (!user.getIsActive()) {
-            throw new BusinessException("User is not active", HttpStatus.BAD_REQUEST);
-        }
+        return passwordHashingService.matches(loginRequestDto.getPassword(), user.getPassword()).thenApply(matched -> {
+            if(!matched){
+                throw new BusinessException("Wrong password", HttpStatus.BAD_REQUEST);
+            }
+
+            if (!user.getIsActive()) {
+                throw new BusinessException("User is not active", HttpStatus.BAD_REQUEST);
+            }
+
+            if (!user.getIsVerified()) {
+                throw new BusinessException("User is not verified", HttpStatus.BAD_REQUEST);
+            }
+
+            // The plaintext is only available here, so hashes below the configured cost are upgraded now
+            if (passwordHashingService.upgradeEncoding(user.getPassword())) {
+                rehash(user, loginRequestDto.getPassword());
+            }
+
+            UserDetails userDetails = new CustomUserDetails(user);
+            String accessToken = jwtUtil.generateAccessToken(userDetails);
+            String refreshToken = jwtUtil.generateRefreshToken(userDetails);
+
+            return LoginResponseDto.builder()
+                    .accessToken(accessToken)
+                    .refreshToken(refreshToken)
+                    .build();
+        });
+    }
 
-        if (!user.getIsVerified()) {
-            throw new BusinessException("User is not verified", HttpStatus.BAD_REQUEST);
+    /**
+     * Best effort and off the login path: a full queue or a failed write just leaves the old
+     * hash in place until the next login.
+     */
+    private void rehash(UserCredentialDto user, String rawPassword) {
+        try {
+            passwordHashingService.encode(rawPassword)
+                    .thenAcceptAsync(encodedPassword -> {
+                        userRepository.updatePassword(user.getId(), encodedPassword);
+                        invalidateCredential(user.getUsername());
+                    }, applicationTaskExecutor)
+                    .exceptionally(e -> {
+                        log.warn("Could not rehash password for user: {}", user.getId(), e);
+                        return null;
+                    });
+        } catch (BusinessException e) {
+            log.debug("Skipping rehash for user {}: {}", user.getId(), e.getMessage());
         }
+    }
 
-        UserDetails userDetails = new CustomUserDetails(user);
-        String accessToken = jwtUtil.generateAccessToken(userDetails);
-        String refreshToken = jwtUtil.generateRefreshToken(userDetails);
+    /**
+     * Must follow every write to a user's password or status flags.
+     */
+    private void invalidateCredential(String username) {
+        cacheService.invalidate(cacheService.buildKey("credential", username));
+    }
 
-        return LoginResponseDto.builder()
-                .accessToken(accessToken)
-                .refreshToken(refreshToken)
-                .build();
+    @Override
+    public String logout(UUID userId, String accessToken, String refreshToken) {
+        revoke(userId, accessToken);
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            revoke(userId, refreshToken);
+        }
+        return "Successfully logged out!";
+    }
+
+    private void revoke(UUID userId, String token) {
+        Claims claims;
+        try {
+            claims = jwtUtil.parseToken(token);
+        } catch (JwtException e) {
+            throw new BusinessException("Invalid token", HttpStatus.BAD_REQUEST);
+        }
+        if (!userId.toString().equals(claims.get("userId", String.class))) {
+            throw new BusinessException("Token does not belong to user", HttpStatus.FORBIDDEN);
+        }
+        if (claims.getId() == null) {
+            // Issued before token ids existed, so it can only be revoked together with the rest
+            tokenRevocationService.revokeAllForUser(userId);
+            return;
+        }
+        tokenRevocationService.revokeToken(claims.getId(), claims.getExpiration().toInstant());
     }
 }
@@ -0,0 +1,168 @@
+package app.service.impl;
+
+import app.dto.AvailabilityResponseDto;
+import app.dto.UserIdentityView;
+import app.repository.UserRepository;
+import app.service.AvailabilityService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import common.util.CountingBloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Username/email availability. A counting Bloom filter of every normalised identifier answers
+ * "definitely free" from memory; only possible positives reach the database, and confirmed
+ * taken identifiers are remembered briefly so repeated probes of the same names stay in memory.
+ * <p>
+ * Until the startup scan completes and the user.registered listener is positioned, every check
+ * goes to the database. The listener replays the topic from shortly before this instance was
+ * created, which is before the scan started, so every registration is either in the scan or
+ * in the replay.
+ */
+@Slf4j
+@Service
+public class AvailabilityServiceImpl implements AvailabilityService {
+
+    private final UserRepository userRepository;
+    private final CountingBloomFilter filter;
+    private final Cache<String, Boolean> taken;
+    private final Counter filterNegatives;
+    private final Counter databaseChecks;
+    private final long replayFrom;
+
+    private volatile boolean scanned;
+    private volatile boolean replaying;
+
+    public AvailabilityServiceImpl(UserRepository userRepository,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.availability.expected-insertions:1000000}") long expectedInsertions,
+                                   @Value("${app.availability.false-positive-rate:0.01}") double falsePositiveRate,
+                                   @Value("${app.availability.taken-cache-size:100000}") long takenCacheSize,
+                                   @Value("${app.availability.taken-cache-ttl:10m}") Duration takenCacheTtl,
+                                   @Value("${app.availability.replay-slack:1m}") Duration replaySlack) {
+        this.userRepository = userRepository;
+        // The slack covers clock skew between this host and the producers' event timestamps
+        this.replayFrom = System.currentTimeMillis() - replaySlack.toMillis();
+        // Usernames and emails share the filter, so it holds two entries per user
+        this.filter = new CountingBloomFilter(expectedInsertions * 2, falsePositiveRate);
+        this.taken = Caffeine.newBuilder()
+                .maximumSize(takenCacheSize)
+                .expireAfterWrite(takenCacheTtl)
+                .recordStats()
+                .build();
+        this.filterNegatives = Counter.builder("user.availability.checks")
+                .tag("source", "filter")
+                .register(meterRegistry);
+        this.databaseChecks = Counter.builder("user.availability.checks")
+                .tag("source", "database")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, taken, "user.availability.taken");
+    }
+
+    /**
+     * Streams identifiers rather than loading users, so startup memory does not grow with the table.
+     * Registrations during the scan are added as usual, and earlier ones since
+     * {@link #getReplayFrom()} are replayed, so none are lost.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long count = 0;
+        try (Stream<UserIdentityView> identities = userRepository.streamAllIdentities()) {
+            for (UserIdentityView identity : (Iterable<UserIdentityView>) identities::iterator) {
+                filter.add(usernameKey(identity.getUsername()));
+                filter.add(emailKey(identity.getEmail()));
+                count++;
+            }
+        }
+        scanned = true;
+        log.info("Availability filter built from {} users", count);
+    }
+
+    /**
+     * Null for an identifier that was not asked about.
+     */
+    @Override
+    public AvailabilityResponseDto check(String username, String email) {
+        Boolean usernameTaken = username != null ? knownTaken(usernameKey(username), "u:" + username) : null;
+        Boolean emailTaken = email != null ? knownTaken(emailKey(email), "e:" + email) : null;
+
+        // Only identifiers the filter could not rule out reach the database, both in one query
+        boolean checkUsername = username != null && usernameTaken == null;
+        boolean checkEmail = email != null && emailTaken == null;
+        if (checkUsername || checkEmail) {
+            databaseChecks.increment();
+            List<UserIdentityView> conflicts = userRepository.findIdentityConflicts(
+                    checkUsername ? username : null, checkEmail ? email : null);
+            if (checkUsername) {
+                usernameTaken = conflicts.stream().anyMatch(c -> username.equals(c.getUsername()));
+                remember("u:" + username, usernameTaken);
+            }
+            if (checkEmail) {
+                emailTaken = conflicts.stream().anyMatch(c -> email.equals(c.getEmail()));
+                remember("e:" + email, emailTaken);
+            }
+        }
+
+        return AvailabilityResponseDto.builder()
+                .usernameAvailable(usernameTaken != null ? !usernameTaken : null)
+                .emailAvailable(emailTaken != null ? !emailTaken : null)
+                .build();
+    }
+
+    @Override
+    public void register(String username, String email) {
+        filter.add(usernameKey(username));
+        filter.add(emailKey(email));
+    }
+
+    @Override
+    public long getReplayFrom() {
+        return replayFrom;
+    }
+
+    @Override
+    public void markReplaying() {
+        replaying = true;
+    }
+
+    /**
+     * False if the filter rules the identifier out, true if it was recently confirmed taken,
+     * null if only the database can tell. The filter is keyed on the normalised form, the
+     * confirmed cache on the exact one, matching the database's unique constraints.
+     */
+    private Boolean knownTaken(String filterKey, String exactKey) {
+        if (scanned && replaying && !filter.mightContain(filterKey)) {
+            filterNegatives.increment();
+            return false;
+        }
+        return taken.getIfPresent(exactKey) != null ? true : null;
+    }
+
+    private void remember(String exactKey, boolean isTaken) {
+        if (isTaken) {
+            taken.put(exactKey, true);
+        }
+    }
+
+    private static String usernameKey(String username) {
+        return "u:" + username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String emailKey(String email) {
+        return "e:" + email.trim().toLowerCase(Locale.ROOT);
+    }
+}
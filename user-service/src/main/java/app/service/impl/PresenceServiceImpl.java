@@ -0,0 +1,169 @@
+package app.service.impl;
+
+import app.repository.UserSettingRepository;
+import app.service.PresenceService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import common.service.RedisService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Online presence. Heartbeats only mark the user in a local concurrent set (no allocation
+ * when the user is already marked, and no shared lock since the map's bins are striped);
+ * a periodic flush writes everyone seen since the last flush as one HSET per shard hash.
+ * <p>
+ * Redis keys are {@code presence:<bucket>:<shard>}, a hash of user id to last-seen epoch
+ * second per time bucket, expiring after two buckets. A user is online if present in the
+ * current or previous bucket. Ids are UUIDs, so there is no dense index to use a bitmap with.
+ */
+@Slf4j
+@Service
+public class PresenceServiceImpl implements PresenceService {
+
+    private static final String KEY_PREFIX = "presence:";
+
+    private final RedisService redisService;
+    private final UserSettingRepository userSettingRepository;
+    private final long bucketSeconds;
+    private final int shards;
+    private final AtomicReference<ConcurrentHashMap<UUID, Boolean>> pending =
+            new AtomicReference<>(new ConcurrentHashMap<>());
+    private final Cache<UUID, Boolean> visibility;
+
+    private final Counter heartbeats;
+    private final Timer flushTimer;
+
+    public PresenceServiceImpl(RedisService redisService,
+                               UserSettingRepository userSettingRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.presence.bucket:60s}") Duration bucket,
+                               @Value("${app.presence.shards:64}") int shards,
+                               @Value("${app.presence.visibility-cache-ttl:1m}") Duration visibilityCacheTtl) {
+        this.redisService = redisService;
+        this.userSettingRepository = userSettingRepository;
+        this.bucketSeconds = bucket.toSeconds();
+        this.shards = shards;
+        this.visibility = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(visibilityCacheTtl)
+                .build();
+
+        this.heartbeats = Counter.builder("user.presence.heartbeats")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("user.presence.flush")
+                .description("Time to write pending heartbeats to Redis")
+                .register(meterRegistry);
+        Gauge.builder("user.presence.pending", pending, ref -> ref.get().size())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void heartbeat(UUID userId) {
+        pending.get().putIfAbsent(userId, Boolean.TRUE);
+        heartbeats.increment();
+    }
+
+    /**
+     * A heartbeat racing the swap may land in the drained map and be dropped; clients beat
+     * more often than a bucket, so the next one covers it.
+     */
+    @Scheduled(fixedDelayString = "${app.presence.flush-interval-ms:5000}")
+    public void flush() {
+        ConcurrentHashMap<UUID, Boolean> drained = pending.getAndSet(new ConcurrentHashMap<>());
+        if (drained.isEmpty()) {
+            return;
+        }
+        long now = Instant.now().getEpochSecond();
+        long bucket = now / bucketSeconds;
+        String lastSeen = Long.toString(now);
+
+        Map<String, Map<String, String>> hashes = new HashMap<>();
+        for (UUID userId : drained.keySet()) {
+            hashes.computeIfAbsent(key(bucket, shard(userId)), k -> new HashMap<>())
+                    .put(userId.toString(), lastSeen);
+        }
+        try {
+            flushTimer.record(() -> redisService.hSetAll(hashes, Duration.ofSeconds(bucketSeconds * 2)));
+        } catch (Exception e) {
+            log.warn("Presence flush of {} users failed: {}", drained.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Online users among the given ones, in request order, leaving out those who hide their status.
+     */
+    @Override
+    public List<UUID> findOnline(Collection<UUID> userIds) {
+        Set<UUID> unique = new LinkedHashSet<>(userIds);
+        Map<UUID, Boolean> visible = visibility.getAll(unique, this::loadVisibility);
+        List<UUID> candidates = unique.stream().filter(id -> Boolean.TRUE.equals(visible.get(id))).toList();
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        long bucket = Instant.now().getEpochSecond() / bucketSeconds;
+        Map<String, List<UUID>> byKey = new LinkedHashMap<>();
+        for (UUID userId : candidates) {
+            int shard = shard(userId);
+            byKey.computeIfAbsent(key(bucket, shard), k -> new ArrayList<>()).add(userId);
+            byKey.computeIfAbsent(key(bucket - 1, shard), k -> new ArrayList<>()).add(userId);
+        }
+
+        List<String> keys = new ArrayList<>(byKey.keySet());
+        List<List<String>> fields = keys.stream()
+                .map(key -> byKey.get(key).stream().map(UUID::toString).toList())
+                .toList();
+        List<List<String>> values = redisService.hMultiGet(keys, fields);
+
+        Set<UUID> online = new HashSet<>();
+        for (int i = 0; i < keys.size(); i++) {
+            List<UUID> keyUsers = byKey.get(keys.get(i));
+            List<String> keyValues = values.get(i);
+            for (int j = 0; j < keyUsers.size(); j++) {
+                if (keyValues != null && keyValues.get(j) != null) {
+                    online.add(keyUsers.get(j));
+                }
+            }
+        }
+        return candidates.stream().filter(online::contains).toList();
+    }
+
+    private Map<UUID, Boolean> loadVisibility(Set<? extends UUID> userIds) {
+        Set<UUID> hidden = new HashSet<>(userSettingRepository.findIdsHidingOnlineStatus(new ArrayList<>(userIds)));
+        Map<UUID, Boolean> result = new HashMap<>();
+        for (UUID userId : userIds) {
+            result.put(userId, !hidden.contains(userId));
+        }
+        return result;
+    }
+
+    private int shard(UUID userId) {
+        return Math.floorMod(userId.hashCode(), shards);
+    }
+
+    private static String key(long bucket, int shard) {
+        return KEY_PREFIX + bucket + ":" + shard;
+    }
+}
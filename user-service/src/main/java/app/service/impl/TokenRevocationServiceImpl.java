@@ -0,0 +1,70 @@
+package app.service.impl;
+
+import app.service.TokenRevocationService;
+import app.util.JwtUtil;
+import common.constant.RedisChannel;
+import common.constant.TokenRevocation;
+import common.service.RedisService;
+import common.util.BloomFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Records revocations in Redis as an exact key (the source of truth) plus a bit in the
+ * Bloom filter of the token's expiry generation, and publishes the delta to the gateways.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private final RedisService redisService;
+    private final JwtUtil jwtUtil;
+
+    @Override
+    public void revokeToken(String tokenId, Instant expiration) {
+        long now = Instant.now().getEpochSecond();
+        long expiresAt = expiration.getEpochSecond();
+        if (expiresAt <= now) {
+            return;
+        }
+
+        // Exact key first, so a gateway that sees the Bloom bit always finds it
+        redisService.setString(TokenRevocation.TOKEN_KEY_PREFIX + tokenId, "1", Duration.ofSeconds(expiresAt - now));
+        addToFilter(TokenRevocation.generation(expiresAt), TokenRevocation.tokenMember(tokenId), now);
+    }
+
+    /**
+     * Revokes every token issued to the user up to now, e.g. after a password change or a ban.
+     * Tokens issued within the current second are included, since issue times are whole seconds.
+     * The member is added to every generation a live token of the user could expire in.
+     */
+    @Override
+    public void revokeAllForUser(UUID userId) {
+        long now = Instant.now().getEpochSecond();
+        long maxLifetime = Duration.ofMillis(jwtUtil.getRefreshExpiration()).toSeconds() + 1;
+
+        redisService.setString(TokenRevocation.USER_KEY_PREFIX + userId, String.valueOf(now),
+                Duration.ofSeconds(maxLifetime));
+
+        String member = TokenRevocation.userMember(userId.toString());
+        long last = TokenRevocation.generation(now + maxLifetime);
+        for (long generation = TokenRevocation.generation(now); generation <= last; generation++) {
+            addToFilter(generation, member, now);
+        }
+        log.info("Revoked all tokens of user: {}", userId);
+    }
+
+    private void addToFilter(long generation, String member, long now) {
+        long[] offsets = BloomFilter.offsets(member, TokenRevocation.BLOOM_BITS, TokenRevocation.BLOOM_HASHES);
+        // Kept one generation past its end to absorb clock skew between services
+        long ttl = TokenRevocation.generationEnd(generation) + TokenRevocation.GENERATION_SECONDS - now;
+        redisService.setBits(TokenRevocation.BLOOM_KEY_PREFIX + generation, offsets, Duration.ofSeconds(ttl));
+        redisService.publish(RedisChannel.TOKEN_REVOCATION, TokenRevocation.delta(generation, member));
+    }
+}
@@ -0,0 +1,81 @@
+package app.service.impl;
+
+import app.dto.UserSearchView;
+import app.repository.UserRepository;
+import app.search.UserSearchIndex;
+import app.service.UserSearchService;
+import app.service.UserService;
+import common.dto.UserProfileDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * People search and mention autocomplete. Matching and ranking happen in memory; only the
+ * final page of ids is resolved to profiles, through the profile cache.
+ * <p>
+ * Local registrations and profile edits reach the index immediately; the periodic rebuild
+ * from the database also picks up changes made on other instances.
+ */
+@Slf4j
+@Service
+public class UserSearchServiceImpl implements UserSearchService {
+
+    private static final int MAX_LIMIT = 50;
+
+    private final UserSearchIndex userSearchIndex;
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer searchTimer;
+
+    public UserSearchServiceImpl(UserSearchIndex userSearchIndex,
+                                 UserRepository userRepository,
+                                 UserService userService,
+                                 TransactionTemplate transactionTemplate,
+                                 MeterRegistry meterRegistry) {
+        this.userSearchIndex = userSearchIndex;
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.transactionTemplate = transactionTemplate;
+        this.searchTimer = Timer.builder("user.search.index.query")
+                .description("In-memory prefix lookup, excluding profile hydration")
+                .register(meterRegistry);
+        Gauge.builder("user.search.index.postings", userSearchIndex, UserSearchIndex::size)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<UserProfileDto> search(String query, int limit) {
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return userService.getProfilesInOrder(searchTimer.record(() -> userSearchIndex.search(query, boundedLimit)));
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.search.rebuild-interval-ms:600000}",
+            initialDelayString = "${app.search.rebuild-interval-ms:600000}")
+    public void rebuildIndex() {
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<UserSearchView> users = userRepository.streamSearchEntries()) {
+                    userSearchIndex.rebuild(users);
+                }
+            });
+            log.info("User search index rebuilt with {} postings in {} ms",
+                    userSearchIndex.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.error("User search index rebuild failed", e);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package app.service.impl;
+
+import app.dto.UpdateProfileRequestDto;
+import app.entity.User;
+import app.repository.UserRepository;
+import app.search.UserSearchIndex;
+import app.service.UserService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import common.constant.RedisChannel;
+import common.dto.UserProfileDto;
+import common.event.UserProfileUpdatedEvent;
+import common.exception.BusinessException;
+import common.outbox.OutboxService;
+import common.service.CacheService;
+import common.service.RedisService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Profiles are read through two tiers: a weight-bounded in-process cache, then Redis, then
+ * one IN query for whatever is left. Each tier is queried once per batch, not once per id.
+ * <p>
+ * Updates publish {@link UserProfileUpdatedEvent}; every instance evicts its own L1 on
+ * receipt, and the writer evicts the shared L2. Each eviction also drops the gateway's cached
+ * copy, so the last one lands after every L1 the gateway could refill from is fresh.
+ */
+@Slf4j
+@Service
+public class UserServiceImpl implements UserService {
+
+    private static final String PROFILE_TOPIC = "user.profile-updated";
+
+    private final UserRepository userRepository;
+    private final CacheService cacheService;
+    private final RedisService redisService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final UserSearchIndex userSearchIndex;
+    private final Cache<UUID, UserProfileDto> localCache;
+    private final Duration redisTtl;
+
+    public UserServiceImpl(UserRepository userRepository,
+                           CacheService cacheService,
+                           RedisService redisService,
+                           OutboxService outboxService,
+                           TransactionTemplate transactionTemplate,
+                           UserSearchIndex userSearchIndex,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.profile-cache.local-max-weight:32MB}") DataSize localMaxWeight,
+                           @Value("${app.profile-cache.local-ttl:5m}") Duration localTtl,
+                           @Value("${app.profile-cache.redis-ttl:1h}") Duration redisTtl) {
+        this.userRepository = userRepository;
+        this.cacheService = cacheService;
+        this.redisService = redisService;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.userSearchIndex = userSearchIndex;
+        this.redisTtl = redisTtl;
+        this.localCache = Caffeine.newBuilder()
+                .maximumWeight(localMaxWeight.toBytes())
+                .weigher((UUID id, UserProfileDto profile) -> estimateSize(profile))
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "user.profile.local");
+    }
+
+    @Override
+    public UserProfileDto getProfile(UUID userId) {
+        UserProfileDto profile = getProfiles(List.of(userId)).get(userId);
+        if (profile == null) {
+            throw new BusinessException("User not found", HttpStatus.NOT_FOUND);
+        }
+        return profile;
+    }
+
+    /**
+     * Unknown ids are absent from the result.
+     */
+    @Override
+    public Map<UUID, UserProfileDto> getProfiles(Collection<UUID> userIds) {
+        Map<UUID, UserProfileDto> result = new HashMap<>(localCache.getAllPresent(userIds));
+
+        List<UUID> misses = new ArrayList<>();
+        for (UUID id : new LinkedHashSet<>(userIds)) {
+            if (!result.containsKey(id)) {
+                misses.add(id);
+            }
+        }
+        if (misses.isEmpty()) {
+            return result;
+        }
+
+        List<String> keys = misses.stream().map(UserServiceImpl::profileKey).toList();
+        Map<String, UserProfileDto> fromRedis = cacheService.getAllFromCache(keys, UserProfileDto.class);
+        List<UUID> dbMisses = new ArrayList<>();
+        for (UUID id : misses) {
+            UserProfileDto profile = fromRedis.get(profileKey(id));
+            if (profile != null) {
+                result.put(id, profile);
+                localCache.put(id, profile);
+            } else {
+                dbMisses.add(id);
+            }
+        }
+        if (dbMisses.isEmpty()) {
+            return result;
+        }
+
+        List<UserProfileDto> fromDb = userRepository.findProfilesByIdIn(dbMisses);
+        Map<String, UserProfileDto> toRedis = new HashMap<>();
+        for (UserProfileDto profile : fromDb) {
+            result.put(profile.getId(), profile);
+            localCache.put(profile.getId(), profile);
+            toRedis.put(profileKey(profile.getId()), profile);
+        }
+        if (!toRedis.isEmpty()) {
+            try {
+                cacheService.cacheAll(toRedis, redisTtl);
+            } catch (RuntimeException e) {
+                log.warn("Could not cache {} profiles: {}", toRedis.size(), e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<UserProfileDto> getProfilesInOrder(List<UUID> userIds) {
+        Map<UUID, UserProfileDto> profiles = getProfiles(userIds);
+        return userIds.stream().map(profiles::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public UserProfileDto updateProfile(UUID userId, UpdateProfileRequestDto updateProfileRequestDto) {
+        User updated = transactionTemplate.execute(status -> {
+            User user = userRepository.findById(userId).orElseThrow(
+                    () -> new BusinessException("User not found", HttpStatus.NOT_FOUND)
+            );
+            user.setFullName(updateProfileRequestDto.getFullName());
+            user.setProfilePictureUrl(updateProfileRequestDto.getProfilePictureUrl());
+            user.setBio(updateProfileRequestDto.getBio());
+            user.setLocation(updateProfileRequestDto.getLocation());
+            user.setWebsite(updateProfileRequestDto.getWebsite());
+            userRepository.save(user);
+
+            outboxService.publish(PROFILE_TOPIC, userId.toString(), UserProfileUpdatedEvent.builder()
+                    .userId(userId)
+                    .timestamp(LocalDateTime.now())
+                    .build());
+            return user;
+        });
+
+        cacheService.invalidate(profileKey(userId));
+        evictProfile(userId);
+        userSearchIndex.upsert(userId, updated.getUsername(), updated.getFullName(), updated.getPopularityScore());
+        return getProfile(userId);
+    }
+
+    @Override
+    public void evictProfile(UUID userId) {
+        localCache.invalidate(userId);
+        try {
+            redisService.publish(RedisChannel.GATEWAY_CACHE_INVALIDATION, "/users/" + userId);
+        } catch (RuntimeException e) {
+            // The gateway entry then lives out its s-maxage
+            log.warn("Could not invalidate gateway cache for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private static String profileKey(UUID userId) {
+        return "profile:" + userId;
+    }
+
+    /**
+     * Rough retained size in bytes: object headers plus two bytes per string character.
+     */
+    private static int estimateSize(UserProfileDto profile) {
+        return 128 + 2 * (length(profile.getUsername()) + length(profile.getFullName())
+                + length(profile.getProfilePictureUrl()) + length(profile.getBio()));
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
@@ -0,0 +1,201 @@
+package app.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixIndexSnapshotTest {
+
+    private record Entry(String term, UUID userId, float score) {
+    }
+
+    @Test
+    void visitsPrefixRangeHighestScoreFirst() {
+        PrefixIndexSnapshot snapshot = snapshot(
+                new Entry("anna", user(1), 3f),
+                new Entry("anh", user(2), 9f),
+                new Entry("an", user(3), 5f),
+                new Entry("ana", user(4), 1f),
+                new Entry("bao", user(5), 100f),
+                new Entry("am", user(6), 50f));
+
+        assertThat(visit(snapshot, "an")).extracting(Entry::term)
+                .containsExactly("anh", "an", "anna", "ana");
+    }
+
+    @Test
+    void prefixBoundsAreExact() {
+        PrefixIndexSnapshot snapshot = snapshot(
+                new Entry("ab", user(1), 1f),
+                new Entry("abc", user(2), 2f),
+                new Entry("abd", user(3), 3f),
+                new Entry("ac", user(4), 4f),
+                new Entry("b", user(5), 5f),
+                new Entry("a", user(6), 6f));
+
+        assertThat(visit(snapshot, "ab")).extracting(Entry::term).containsExactly("abd", "abc", "ab");
+        assertThat(visit(snapshot, "abc")).extracting(Entry::term).containsExactly("abc");
+        assertThat(visit(snapshot, "a")).extracting(Entry::term).containsExactly("a", "ac", "abd", "abc", "ab");
+        assertThat(visit(snapshot, "b")).extracting(Entry::term).containsExactly("b");
+    }
+
+    @Test
+    void emptyRangesVisitNothing() {
+        PrefixIndexSnapshot snapshot = snapshot(
+                new Entry("ab", user(1), 1f),
+                new Entry("ac", user(2), 2f));
+
+        assertThat(visit(snapshot, "aa")).isEmpty();
+        assertThat(visit(snapshot, "abb")).isEmpty();
+        assertThat(visit(snapshot, "ad")).isEmpty();
+        assertThat(visit(snapshot, "0")).isEmpty();
+        assertThat(visit(snapshot, "zz")).isEmpty();
+        assertThat(visit(PrefixIndexSnapshot.EMPTY, "a")).isEmpty();
+    }
+
+    @Test
+    void emptyPrefixVisitsEverything() {
+        PrefixIndexSnapshot snapshot = snapshot(
+                new Entry("b", user(1), 1f),
+                new Entry("a", user(2), 2f),
+                new Entry("c", user(3), 3f));
+
+        assertThat(visit(snapshot, "")).extracting(Entry::term).containsExactly("c", "a", "b");
+    }
+
+    /**
+     * Multibyte UTF-8 lead bytes are above every ASCII byte only when compared unsigned, and
+     * a multibyte prefix must not match terms sharing just its first byte.
+     */
+    @Test
+    void multibyteTermsSortUnsignedAndMatchWholeCharacters() {
+        PrefixIndexSnapshot snapshot = snapshot(
+                new Entry("e", user(1), 1f),
+                new Entry("ez", user(2), 2f),
+                new Entry("é", user(3), 3f),
+                new Entry("éa", user(4), 4f),
+                new Entry("ê", user(5), 5f),
+                new Entry("日", user(6), 6f),
+                new Entry("日本", user(7), 7f),
+                new Entry("日本語", user(8), 8f),
+                new Entry("😀x", user(9), 9f),
+                new Entry("z", user(10), 10f));
+
+        assertThat(visit(snapshot, "e")).extracting(Entry::term).containsExactly("ez", "e");
+        assertThat(visit(snapshot, "é")).extracting(Entry::term).containsExactly("éa", "é");
+        assertThat(visit(snapshot, "ê")).extracting(Entry::term).containsExactly("ê");
+        assertThat(visit(snapshot, "日本")).extracting(Entry::term).containsExactly("日本語", "日本");
+        assertThat(visit(snapshot, "日")).extracting(Entry::term).containsExactly("日本語", "日本", "日");
+        assertThat(visit(snapshot, "😀")).extracting(Entry::term).containsExactly("😀x");
+        assertThat(visit(snapshot, "z")).extracting(Entry::term).containsExactly("z");
+        assertThat(visit(snapshot, "本")).isEmpty();
+    }
+
+    @Test
+    void stopsWhenVisitorReturnsFalse() {
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            entries.add(new Entry("user" + i, user(i), i));
+        }
+        PrefixIndexSnapshot snapshot = snapshot(entries.toArray(Entry[]::new));
+
+        List<Float> scores = new ArrayList<>();
+        snapshot.visitByScore("user", (userId, term, score) -> {
+            scores.add(score);
+            return scores.size() < 5;
+        });
+
+        assertThat(scores).containsExactly(99f, 98f, 97f, 96f, 95f);
+    }
+
+    /**
+     * Compares against a sorted scan for sizes on and off powers of two, where the segment
+     * tree has padding leaves, and with users holding several terms.
+     */
+    @Test
+    void matchesBruteForceOnRandomTerms() {
+        Random random = new Random(42);
+        String alphabet = "abcé日";
+        for (int size : new int[]{1, 2, 3, 7, 8, 9, 31, 64, 100, 257, 1000}) {
+            int users = Math.max(1, size / 2);
+            float[] userScores = new float[users];
+            for (int i = 0; i < users; i++) {
+                userScores[i] = random.nextInt(50);
+            }
+            List<Entry> entries = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                int userIndex = random.nextInt(users);
+                StringBuilder term = new StringBuilder();
+                int length = 1 + random.nextInt(4);
+                for (int c = 0; c < length; c++) {
+                    term.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                entries.add(new Entry(term.toString(), user(userIndex), userScores[userIndex]));
+            }
+            PrefixIndexSnapshot snapshot = snapshot(entries.toArray(Entry[]::new));
+
+            for (String prefix : List.of("", "a", "b", "é", "日", "ab", "é日", "ca", "aaa", "x")) {
+                List<Entry> visited = visit(snapshot, prefix);
+                List<Entry> expected = entries.stream()
+                        .filter(entry -> entry.term().startsWith(prefix))
+                        .sorted(Comparator.comparing(Entry::score).reversed())
+                        .toList();
+
+                assertThat(visited).extracting(Entry::score)
+                        .as("scores for prefix '%s' over %d postings", prefix, size)
+                        .containsExactlyElementsOf(expected.stream().map(Entry::score).toList());
+                assertThat(visited).containsExactlyInAnyOrderElementsOf(expected);
+            }
+        }
+    }
+
+    /**
+     * Builds a snapshot the way {@link UserSearchIndex} does: one doc per user and one posting
+     * per entry. Entries of the same user carry the same score.
+     */
+    private static PrefixIndexSnapshot snapshot(Entry... entries) {
+        Map<UUID, Integer> docs = new HashMap<>();
+        List<PrefixIndexSnapshot.Posting> postings = new ArrayList<>();
+        List<UUID> users = new ArrayList<>();
+        List<Float> scores = new ArrayList<>();
+        for (Entry entry : entries) {
+            Integer doc = docs.get(entry.userId());
+            if (doc == null) {
+                doc = users.size();
+                docs.put(entry.userId(), doc);
+                users.add(entry.userId());
+                scores.add(entry.score());
+            }
+            postings.add(new PrefixIndexSnapshot.Posting(entry.term().getBytes(StandardCharsets.UTF_8), doc));
+        }
+
+        long[] mostSigBits = new long[users.size()];
+        long[] leastSigBits = new long[users.size()];
+        float[] docScores = new float[users.size()];
+        for (int i = 0; i < users.size(); i++) {
+            mostSigBits[i] = users.get(i).getMostSignificantBits();
+            leastSigBits[i] = users.get(i).getLeastSignificantBits();
+            docScores[i] = scores.get(i);
+        }
+        return PrefixIndexSnapshot.build(postings, mostSigBits, leastSigBits, docScores);
+    }
+
+    private static List<Entry> visit(PrefixIndexSnapshot snapshot, String prefix) {
+        List<Entry> visited = new ArrayList<>();
+        snapshot.visitByScore(prefix, (userId, term, score) -> visited.add(new Entry(term, userId, score)));
+        return visited;
+    }
+
+    private static UUID user(int i) {
+        return new UUID(0L, i);
+    }
+}
@@ -0,0 +1,165 @@
+package app.search;
+
+import app.dto.UserSearchView;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Heap retained per million users and query latency of {@link UserSearchIndex}, over synthetic
+ * users with Vietnamese and English names, generated usernames and a long-tailed popularity.
+ * <p>
+ * Run with {@code ./gradlew :user-service:searchBenchmark -Pusers=1000000}. Heap figures come
+ * from {@link Runtime} after repeated GCs, so run it with nothing else in the JVM.
+ */
+public class UserSearchIndexBenchmark {
+
+    private static final String[] FAMILY_NAMES = {
+            "Nguyễn", "Trần", "Lê", "Phạm", "Hoàng", "Huỳnh", "Phan", "Vũ", "Võ", "Đặng",
+            "Bùi", "Đỗ", "Hồ", "Ngô", "Dương", "Lý", "Smith", "Johnson", "Brown", "Garcia"};
+    private static final String[] MIDDLE_NAMES = {
+            "Văn", "Thị", "Minh", "Ngọc", "Thanh", "Quốc", "Hữu", "Đức", "Anh", "Xuân", ""};
+    private static final String[] GIVEN_NAMES = {
+            "An", "Bình", "Châu", "Dũng", "Giang", "Hà", "Hải", "Hạnh", "Hiếu", "Hùng", "Khánh",
+            "Lan", "Linh", "Long", "Mai", "Nam", "Nga", "Phúc", "Quân", "Sơn", "Tâm", "Thảo",
+            "Trang", "Tú", "Tuấn", "Vy", "Yến", "James", "Mary", "David", "Emma", "Olivia", "Liam"};
+    private static final String SYLLABLES = "abcdefghijklmnopqrstuvwxyz";
+    private static final int LIMIT = 10;
+    private static final int WARMUP_QUERIES = 10_000;
+
+    private final int users;
+    private final int queries;
+
+    private UserSearchIndexBenchmark(int users, int queries) {
+        this.users = users;
+        this.queries = queries;
+    }
+
+    public static void main(String[] args) {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        new UserSearchIndexBenchmark(users, queries).run();
+    }
+
+    private void run() {
+        long before = usedHeap();
+        UserSearchIndex index = new UserSearchIndex();
+        long start = System.nanoTime();
+        index.rebuild(IntStream.range(0, users).mapToObj(this::user));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long retained = usedHeap() - before;
+        System.out.printf("Built %,d users (%,d postings) in %.1f s; %,d MB retained, %,.0f MB per million users, %.1f bytes per posting%n",
+                users, index.size(), seconds, retained >> 20,
+                retained / (double) (1 << 20) * 1_000_000 / users, (double) retained / Math.max(1, index.size()));
+
+        measureAll(index, "snapshot");
+
+        // Profile edits and registrations since the rebuild sit in the delta until the next one
+        int updates = Math.min(users, 50_000);
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < updates; i++) {
+            UserSearchView user = user(random.nextInt(users));
+            index.upsert(user.getId(), user.getUsername() + "x", user.getFullName(), user.getPopularityScore() + 1);
+        }
+        measureAll(index, "+" + updates / 1000 + "k delta");
+    }
+
+    private void measureAll(UserSearchIndex index, String state) {
+        measure(index, state, "1 char", random -> String.valueOf(SYLLABLES.charAt(random.nextInt(SYLLABLES.length()))));
+        measure(index, state, "2 chars", random -> username(random).substring(0, 2));
+        measure(index, state, "3 chars", random -> username(random).substring(0, 3));
+        measure(index, state, "given name", random -> pick(random, GIVEN_NAMES));
+        measure(index, state, "full name", random -> pick(random, FAMILY_NAMES) + " " + pick(random, MIDDLE_NAMES));
+        measure(index, state, "no match", random -> "qqzx" + random.nextInt(1000));
+    }
+
+    private void measure(UserSearchIndex index, String state, String name, Function<SplittableRandom, String> query) {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < WARMUP_QUERIES; i++) {
+            index.search(query.apply(random), LIMIT);
+        }
+        long[] nanos = new long[queries];
+        long hits = 0;
+        for (int i = 0; i < queries; i++) {
+            String text = query.apply(random);
+            long start = System.nanoTime();
+            hits += index.search(text, LIMIT).size();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-12s %-10s %,8d queries  avg hits %4.1f  p50 %7.1f us  p99 %7.1f us  p99.9 %7.1f us  max %8.1f us%n",
+                state, name, queries, (double) hits / queries,
+                percentile(nanos, 0.50), percentile(nanos, 0.99), percentile(nanos, 0.999),
+                nanos[nanos.length - 1] / 1e3);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))] / 1e3;
+    }
+
+    private UserSearchView user(int i) {
+        SplittableRandom random = new SplittableRandom(i);
+        String middle = pick(random, MIDDLE_NAMES);
+        String fullName = pick(random, FAMILY_NAMES) + (middle.isEmpty() ? "" : " " + middle)
+                + " " + pick(random, GIVEN_NAMES);
+        String username = username(random) + i;
+        // Most users have few followers and a handful have very many
+        double popularity = Math.floor(1 / Math.pow(1 - random.nextDouble(), 1.2));
+        return new Row(new UUID(0L, i), username, fullName, popularity);
+    }
+
+    private static String username(SplittableRandom random) {
+        int length = 3 + random.nextInt(6);
+        StringBuilder username = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            username.append(SYLLABLES.charAt(random.nextInt(SYLLABLES.length())));
+        }
+        return username.toString();
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    private record Row(UUID id, String username, String fullName, Double popularityScore) implements UserSearchView {
+
+        @Override
+        public UUID getId() {
+            return id;
+        }
+
+        @Override
+        public String getUsername() {
+            return username;
+        }
+
+        @Override
+        public String getFullName() {
+            return fullName;
+        }
+
+        @Override
+        public Double getPopularityScore() {
+            return popularityScore;
+        }
+    }
+}